@@ -0,0 +1,60 @@
+package org.rsinitsyn.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rsinitsyn.domain.MatchResult;
+import org.rsinitsyn.domain.MatchType;
+import org.rsinitsyn.domain.TournamentStage;
+import org.rsinitsyn.dto.request.OpponentFilter;
+import org.rsinitsyn.utils.StatsUtils;
+
+/**
+ * {@link StatsUtils#filterMatches} as used by the service, with tournament names resolved from the synthetic
+ * tournaments instead of the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterMatchesBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int matches;
+
+    Function<String, Long> tournamentIds = name -> Long.valueOf(name.substring("cup".length()));
+    List<MatchResult> results;
+    OpponentFilter filter;
+
+    @Setup
+    public void setUp() {
+        var synthetic = new SyntheticMatches(42);
+        results = synthetic.generate(matches);
+        filter = new OpponentFilter("cup1",
+                List.of(TournamentStage.GROUP, TournamentStage.GRAND_FINAL),
+                synthetic.getOpponent(0).name);
+    }
+
+    @Benchmark
+    public List<MatchResult> byType() {
+        return StatsUtils.filterMatches(results, MatchType.SHORT);
+    }
+
+    @Benchmark
+    public List<MatchResult> byFilterAndType() {
+        return StatsUtils.filterMatches(results, filter, tournamentIds, MatchType.SHORT);
+    }
+}
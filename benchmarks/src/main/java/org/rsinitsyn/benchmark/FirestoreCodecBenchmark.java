@@ -0,0 +1,154 @@
+package org.rsinitsyn.benchmark;
+
+import com.google.cloud.NoCredentials;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreOptions;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.annotation.DocumentId;
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rsinitsyn.domain.Player;
+import org.rsinitsyn.firestore.DocumentIdCodec;
+import org.rsinitsyn.firestore.FirestoreCodec;
+import org.rsinitsyn.repo.PlayerCodec;
+
+/**
+ * Per-document cost of a Firestore write before it reaches the network: id extraction by walking the class
+ * hierarchy on every call (the former {@code AbstractFirestoreRepository.getDocumentId}) against a cached
+ * {@link DocumentIdCodec}, and adding a document to a {@link WriteBatch} through the client's reflective mapping
+ * against {@link PlayerCodec}. The batch is never committed, so no emulator is needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FirestoreCodecBenchmark {
+
+    Firestore firestore;
+    CollectionReference collection;
+    FirestoreCodec<IdentifiedPlayer> documentIdCodec;
+    FirestoreCodec<Player> playerCodec;
+    IdentifiedPlayer identified;
+    ProfileDocument profile;
+    Player player;
+
+    @Setup
+    public void setUp() {
+        firestore = FirestoreOptions.newBuilder()
+                .setProjectId("benchmark")
+                .setCredentials(NoCredentials.getInstance())
+                .build()
+                .getService();
+        collection = firestore.collection("players");
+        documentIdCodec = DocumentIdCodec.forType(IdentifiedPlayer.class);
+        playerCodec = new PlayerCodec();
+
+        identified = new IdentifiedPlayer();
+        identified.id = 42L;
+        player = new Player("player-42", "First", "Last", 30, Instant.parse("2024-01-01T10:00:00Z"), null);
+        player.id = 42L;
+        profile = ProfileDocument.of(player);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        firestore.close();
+    }
+
+    @Benchmark
+    public String idReflective() {
+        return reflectiveId(identified);
+    }
+
+    @Benchmark
+    public String idCodec() {
+        return documentIdCodec.getId(identified);
+    }
+
+    @Benchmark
+    public WriteBatch setReflective() {
+        WriteBatch batch = firestore.batch();
+        return batch.set(collection.document(reflectiveId(identified)), profile);
+    }
+
+    @Benchmark
+    public WriteBatch setCodec() {
+        WriteBatch batch = firestore.batch();
+        return batch.set(collection.document(playerCodec.getId(player)), playerCodec.encode(player));
+    }
+
+    private static String reflectiveId(Object model) {
+        Object key;
+        Class<?> type = model.getClass();
+        do {
+            key = Arrays.stream(type.getDeclaredFields())
+                    .filter(field -> field.isAnnotationPresent(DocumentId.class))
+                    .findFirst()
+                    .map(field -> value(model, field))
+                    .orElse(null);
+            type = type.getSuperclass();
+        } while (key == null && type != null);
+        return key == null ? null : String.valueOf(key);
+    }
+
+    private static Object value(Object model, Field field) {
+        field.setAccessible(true);
+        try {
+            return field.get(model);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The id sits in the superclass, like {@code PanacheEntity.id} for entities.
+     */
+    public static class IdentifiedBase {
+        @DocumentId
+        public Long id;
+    }
+
+    public static class IdentifiedPlayer extends IdentifiedBase {
+        public String name;
+    }
+
+    /**
+     * Same fields as {@link PlayerCodec} writes, as a bean the client can map reflectively.
+     */
+    public static class ProfileDocument {
+        public String name;
+        public String firstName;
+        public String lastName;
+        public int age;
+        public Timestamp registrationDate;
+
+        static ProfileDocument of(Player player) {
+            var document = new ProfileDocument();
+            document.name = player.name;
+            document.firstName = player.firstName;
+            document.lastName = player.lastName;
+            document.age = player.age;
+            document.registrationDate = Timestamp.ofTimeSecondsAndNanos(
+                    player.registrationDate.getEpochSecond(), player.registrationDate.getNano());
+            return document;
+        }
+    }
+}
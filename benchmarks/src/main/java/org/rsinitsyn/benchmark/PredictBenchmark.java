@@ -0,0 +1,57 @@
+package org.rsinitsyn.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rsinitsyn.domain.MatchResult;
+import org.rsinitsyn.domain.MatchType;
+import org.rsinitsyn.domain.Player;
+import org.rsinitsyn.dto.response.MatchPredictionResponse;
+import org.rsinitsyn.service.PredictService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredictBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int matches;
+
+    PredictService predictService = new PredictService();
+    List<MatchResult> commonMatches;
+    List<MatchResult> playerMatches;
+    List<MatchResult> opponentMatches;
+
+    @Setup
+    public void setUp() {
+        var synthetic = new SyntheticMatches(42);
+        Player opponent = synthetic.getOpponent(0);
+        playerMatches = synthetic.generate(matches).stream()
+                .filter(mr -> mr.getType() == MatchType.SHORT)
+                .toList();
+        opponentMatches = synthetic.generate(opponent, matches, 0.45).stream()
+                .filter(mr -> mr.getType() == MatchType.SHORT)
+                .toList();
+        commonMatches = playerMatches.stream()
+                .filter(mr -> mr.getOpponent().equals(opponent))
+                .toList();
+    }
+
+    @Benchmark
+    public List<MatchPredictionResponse.MatchPredictDto> matchPredictDtoList() {
+        return predictService.getMatchPredictDtoList(commonMatches, playerMatches, opponentMatches, MatchType.SHORT);
+    }
+}
@@ -0,0 +1,185 @@
+package org.rsinitsyn.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rsinitsyn.config.ObjectMapperConfig;
+import org.rsinitsyn.domain.MatchResult;
+import org.rsinitsyn.domain.MatchType;
+import org.rsinitsyn.domain.Player;
+import org.rsinitsyn.dto.response.PlayerStatsResponse;
+import org.rsinitsyn.dto.response.RatingsResponse;
+import org.rsinitsyn.dto.response.RecordsResponse;
+import org.rsinitsyn.utils.ConverterUtils;
+import org.rsinitsyn.utils.LazyPlayerStats;
+import org.rsinitsyn.utils.StatsUtils;
+
+/**
+ * Encoding cost of the match history, player stats, records and ratings payloads as JSON, CBOR and Smile, with
+ * the mappers configured the way {@code BinaryJacksonProvider} does. Payload sizes are printed once per trial.
+ * Records and ratings are shaped like the service builds them, from the stats of every synthetic player.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1000", "10000"})
+    int matches;
+    @Param({"history", "stats", "records", "ratings"})
+    String response;
+
+    ObjectMapper json;
+    ObjectMapper cbor;
+    ObjectMapper smile;
+    Object payload;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        json = mapper(new ObjectMapper());
+        cbor = mapper(new ObjectMapper(new CBORFactory()));
+        smile = mapper(new ObjectMapper(new SmileFactory()));
+        var synthetic = new SyntheticMatches(42);
+        payload = switch (response) {
+            case "history" -> Map.of("matches", synthetic.generate(matches).stream()
+                    .map(ConverterUtils::getMatchDetailsDto)
+                    .toList());
+            case "stats" -> stats(synthetic.getPlayer().name, synthetic.generate(matches));
+            case "records" -> new RecordsResponse(StatsUtils.linkedHashMapMatchType(
+                    records(playersStats(synthetic, null)),
+                    records(playersStats(synthetic, MatchType.SHORT)),
+                    records(playersStats(synthetic, MatchType.LONG))));
+            case "ratings" -> new RatingsResponse(StatsUtils.linkedHashMapMatchType(
+                    ratings(playersStats(synthetic, null)),
+                    ratings(playersStats(synthetic, MatchType.SHORT)),
+                    ratings(playersStats(synthetic, MatchType.LONG))));
+            default -> throw new IllegalArgumentException(response);
+        };
+
+        System.out.printf("%nPayload bytes of %s for %d matches: json=%d, cbor=%d, smile=%d%n",
+                response,
+                matches,
+                json.writeValueAsBytes(payload).length,
+                cbor.writeValueAsBytes(payload).length,
+                smile.writeValueAsBytes(payload).length);
+    }
+
+    @Benchmark
+    public byte[] json() throws JsonProcessingException {
+        return json.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] cbor() throws JsonProcessingException {
+        return cbor.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] smile() throws JsonProcessingException {
+        return smile.writeValueAsBytes(payload);
+    }
+
+    private static PlayerStatsResponse stats(String name, List<MatchResult> results) {
+        return new PlayerStatsResponse(name, null,
+                ConverterUtils.getPlayerStatisticDto(results),
+                typeStats(results),
+                results.stream().collect(Collectors.groupingBy(mr -> mr.getOpponent().name, TreeMap::new,
+                        Collectors.collectingAndThen(Collectors.toList(), opponentResults -> {
+                            Map<String, PlayerStatsResponse.PlayerStatsDto> stats = new LinkedHashMap<>();
+                            stats.put("ALL", ConverterUtils.getPlayerStatisticDto(opponentResults));
+                            stats.putAll(typeStats(opponentResults));
+                            return stats;
+                        }))));
+    }
+
+    private static Map<String, PlayerStatsResponse.PlayerStatsDto> typeStats(List<MatchResult> results) {
+        return StatsUtils.linkedHashMapMatchType(
+                ConverterUtils.getPlayerStatisticDto(StatsUtils.filterMatches(results, MatchType.SHORT)),
+                ConverterUtils.getPlayerStatisticDto(StatsUtils.filterMatches(results, MatchType.LONG)));
+    }
+
+    /**
+     * Stats of the synthetic player and of every opponent, each over its share of the matches.
+     */
+    private Map<String, LazyPlayerStats> playersStats(SyntheticMatches synthetic, MatchType type) {
+        Map<String, LazyPlayerStats> stats = new TreeMap<>();
+        for (int i = 0; i <= SyntheticMatches.OPPONENTS; i++) {
+            Player owner = i == 0 ? synthetic.getPlayer() : synthetic.getOpponent(i - 1);
+            List<MatchResult> results = synthetic.generate(owner, matches / (SyntheticMatches.OPPONENTS + 1), 0.5);
+            stats.put(owner.name, new LazyPlayerStats(type == null
+                    ? results
+                    : StatsUtils.filterMatches(results, type)));
+        }
+        return stats;
+    }
+
+    private static RecordsResponse.RecordListDto records(Map<String, LazyPlayerStats> stats) {
+        return RecordsResponse.RecordListDto.builder()
+                .matches(record(stats, LazyPlayerStats::getMatches))
+                .wins(record(stats, LazyPlayerStats::getWins))
+                .loses(record(stats, LazyPlayerStats::getLoses))
+                .winRate(record(stats, LazyPlayerStats::getWinRate))
+                .winStreak(record(stats, LazyPlayerStats::getWinStreak))
+                .loseStreak(record(stats, LazyPlayerStats::getLoseStreak))
+                .pointsScored(record(stats, LazyPlayerStats::getPointsScored))
+                .avgPointsScored(record(stats, LazyPlayerStats::getAvgPointsScored))
+                .pointsMissed(record(stats, LazyPlayerStats::getPointsMissed))
+                .avgPointsMissed(record(stats, LazyPlayerStats::getAvgPointsMissed))
+                .pointsRate(record(stats, LazyPlayerStats::getPointsRate))
+                .build();
+    }
+
+    private static RatingsResponse.RatingsListDto ratings(Map<String, LazyPlayerStats> stats) {
+        return RatingsResponse.RatingsListDto.builder()
+                .matches(rating(stats, LazyPlayerStats::getMatches))
+                .winRate(rating(stats, LazyPlayerStats::getWinRate))
+                .winStreak(rating(stats, LazyPlayerStats::getWinStreak))
+                .loseStreak(rating(stats, LazyPlayerStats::getLoseStreak))
+                .avgScored(rating(stats, LazyPlayerStats::getAvgPointsScored))
+                .avgMissed(rating(stats, LazyPlayerStats::getAvgPointsMissed))
+                .pointsRate(rating(stats, LazyPlayerStats::getPointsRate))
+                .build();
+    }
+
+    private static <T extends Comparable<T>> RecordsResponse.RecordListDto.RecordDto record(
+            Map<String, LazyPlayerStats> stats, Function<LazyPlayerStats, T> value) {
+        List<RecordsResponse.PlayerValueDto> rating = rating(stats, value);
+        return new RecordsResponse.RecordListDto.RecordDto(rating.get(0), rating.get(rating.size() - 1));
+    }
+
+    private static <T extends Comparable<T>> List<RecordsResponse.PlayerValueDto> rating(
+            Map<String, LazyPlayerStats> stats, Function<LazyPlayerStats, T> value) {
+        return stats.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(Comparator.comparing(value).reversed()))
+                .map(e -> new RecordsResponse.PlayerValueDto(e.getKey(), String.valueOf(value.apply(e.getValue()))))
+                .toList();
+    }
+
+    private static ObjectMapper mapper(ObjectMapper mapper) {
+        new ObjectMapperConfig().customize(mapper);
+        return mapper.findAndRegisterModules();
+    }
+}
@@ -0,0 +1,64 @@
+package org.rsinitsyn.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rsinitsyn.domain.MatchResult;
+import org.rsinitsyn.dto.response.PlayerStatsResponse;
+import org.rsinitsyn.utils.ConverterUtils;
+import org.rsinitsyn.utils.StatsUtils;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int matches;
+
+    List<MatchResult> results;
+    double[] scored;
+
+    @Setup
+    public void setUp() {
+        results = new SyntheticMatches(42).generate(matches);
+        scored = results.stream().mapToDouble(MatchResult::getScored).toArray();
+    }
+
+    @Benchmark
+    public PlayerStatsResponse.PlayerStatsDto playerStatisticDto() {
+        return ConverterUtils.getPlayerStatisticDto(results);
+    }
+
+    @Benchmark
+    public int longestStreak() {
+        return StatsUtils.longestStreak(results, MatchResult::isWinner);
+    }
+
+    @Benchmark
+    public int median() {
+        return StatsUtils.median(scored);
+    }
+
+    @Benchmark
+    public double divide() {
+        int sum = 0;
+        for (MatchResult result : results) {
+            sum += result.getScored();
+        }
+        return StatsUtils.divide(sum, results.size());
+    }
+}
@@ -0,0 +1,103 @@
+package org.rsinitsyn.benchmark;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.rsinitsyn.domain.Match;
+import org.rsinitsyn.domain.MatchResult;
+import org.rsinitsyn.domain.MatchType;
+import org.rsinitsyn.domain.Player;
+import org.rsinitsyn.domain.Tournament;
+import org.rsinitsyn.domain.TournamentStage;
+import org.rsinitsyn.domain.TournamentType;
+
+/**
+ * Seeded in-memory matches of one player, built without a database. Every match is played against one of
+ * {@link #OPPONENTS} opponents, a fifth of them inside a tournament.
+ */
+public final class SyntheticMatches {
+
+    public static final int OPPONENTS = 20;
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+
+    private final SplittableRandom random;
+    private final Player player;
+    private final List<Player> opponents = new ArrayList<>();
+    private final List<Tournament> tournaments = new ArrayList<>();
+
+    public SyntheticMatches(long seed) {
+        this.random = new SplittableRandom(seed);
+        this.player = player(0, "player");
+        for (int i = 1; i <= OPPONENTS; i++) {
+            opponents.add(player(i, "opponent" + i));
+        }
+        for (int i = 1; i <= 4; i++) {
+            var tournament = new Tournament();
+            tournament.id = (long) i;
+            tournament.name = "cup" + i;
+            tournament.type = TournamentType.CUP;
+            tournaments.add(tournament);
+        }
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public Player getOpponent(int index) {
+        return opponents.get(index);
+    }
+
+    /**
+     * Matches from the point of view of {@link #getPlayer()}, the player wins a bit more than a half of them.
+     */
+    public List<MatchResult> generate(int count) {
+        return generate(player, count, 0.55);
+    }
+
+    public List<MatchResult> generate(Player owner, int count, double winProbability) {
+        List<MatchResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Player opponent = opponents.get(random.nextInt(OPPONENTS));
+            if (opponent == owner) {
+                opponent = player;
+            }
+            var match = new Match();
+            match.id = (long) i;
+            match.type = random.nextInt(4) == 0 ? MatchType.LONG : MatchType.SHORT;
+            match.date = START.plus(i, ChronoUnit.HOURS);
+            if (random.nextInt(5) == 0) {
+                match.tournament = tournaments.get(random.nextInt(tournaments.size()));
+                match.stage = TournamentStage.values()[2 + random.nextInt(TournamentStage.values().length - 2)];
+            } else {
+                match.stage = TournamentStage.FRIENDLY;
+            }
+
+            boolean win = random.nextDouble() < winProbability;
+            int points = match.type.getPoints();
+            int loserScore = random.nextInt(points - 1);
+            var result = new MatchResult();
+            result.setMatch(match);
+            result.setPlayer(owner);
+            result.setOpponent(opponent);
+            result.setScored(win ? points : loserScore);
+            result.setMissed(win ? loserScore : points);
+            result.setWinner(win);
+            result.setType(match.type);
+            result.setStage(match.stage);
+            result.setTournamentId(match.tournament == null ? null : match.tournament.id);
+            result.setDate(match.date);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static Player player(long id, String name) {
+        var player = new Player();
+        player.id = id;
+        player.name = name;
+        return player;
+    }
+}
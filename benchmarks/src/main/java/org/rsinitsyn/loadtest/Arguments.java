@@ -0,0 +1,37 @@
+package org.rsinitsyn.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code --name value} command line options.
+ */
+final class Arguments {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    Arguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 == args.length) {
+                throw new IllegalArgumentException("Expected --name value pairs, got: " + args[i]);
+            }
+            values.put(args[i].substring(2), args[++i]);
+        }
+    }
+
+    String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int getInt(String name, int defaultValue) {
+        return values.containsKey(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+    }
+
+    long getLong(String name, long defaultValue) {
+        return values.containsKey(name) ? Long.parseLong(values.get(name)) : defaultValue;
+    }
+
+    double getDouble(String name, double defaultValue) {
+        return values.containsKey(name) ? Double.parseDouble(values.get(name)) : defaultValue;
+    }
+}
@@ -0,0 +1,343 @@
+package org.rsinitsyn.loadtest;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.rsinitsyn.domain.MatchType;
+import org.rsinitsyn.domain.TournamentStage;
+import org.rsinitsyn.domain.TournamentType;
+
+/**
+ * Fills the database with clubs of players, tournaments and friendly matches, all derived from {@code --seed}:
+ * the same options produce the same dataset. Rows are streamed with {@code COPY} in batches, one transaction
+ * per batch. Ids are reserved up front from {@code hibernate_sequence}, so the application keeps working on top.
+ * <p>
+ * Every player has a skill drawn around the mean of its club, the rally is won with the logistic of the skill
+ * difference and games are played rally by rally, so scores and win rates look like real ones.
+ * <pre>
+ * java -cp target/benchmarks.jar org.rsinitsyn.loadtest.DatasetGenerator \
+ *     --url jdbc:postgresql://localhost:5432/tennis-db-dev --matches 1000000 --seed 42
+ * </pre>
+ */
+public class DatasetGenerator {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneOffset.UTC);
+    private static final double LONG_MATCH_SHARE = 0.25;
+    private static final double SAME_CLUB_SHARE = 0.8;
+
+    private final SplittableRandom random;
+    private final Arguments args;
+    private final String prefix;
+    private final Instant from;
+    private final long periodSeconds;
+    private final List<GeneratedPlayer> players = new ArrayList<>();
+    private final List<List<GeneratedPlayer>> clubs = new ArrayList<>();
+
+    DatasetGenerator(Arguments args) {
+        this.args = args;
+        this.random = new SplittableRandom(args.getLong("seed", 42));
+        this.prefix = args.get("prefix", "gen");
+        this.from = LocalDate.parse(args.get("from", "2022-01-01")).atStartOfDay(ZoneOffset.UTC).toInstant();
+        this.periodSeconds = ChronoUnit.DAYS.getDuration().getSeconds() * args.getInt("days", 730);
+    }
+
+    public static void main(String[] argv) throws Exception {
+        var args = new Arguments(argv);
+        try (Connection connection = DriverManager.getConnection(
+                args.get("url", "jdbc:postgresql://localhost:5432/tennis-db-dev"),
+                args.get("user", "postgres"),
+                args.get("password", "postgres"))) {
+            connection.setAutoCommit(false);
+            new DatasetGenerator(args).generate(connection);
+        }
+    }
+
+    void generate(Connection connection) throws SQLException, IOException {
+        long started = System.nanoTime();
+        var copy = new CopyBatch(connection, args.getInt("batch-size", 50_000));
+
+        generatePlayers(connection, copy);
+        long tournamentMatches = generateTournaments(connection, copy);
+        long friendlyMatches = Math.max(0, args.getLong("matches", 100_000) - tournamentMatches);
+        generateFriendlyMatches(friendlyMatches, copy);
+        copy.flush();
+
+        System.out.printf("Generated %d players, %d tournament and %d friendly matches in %d s%n",
+                players.size(), tournamentMatches, friendlyMatches,
+                (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    private void generatePlayers(Connection connection, CopyBatch copy) throws SQLException, IOException {
+        int clubCount = args.getInt("clubs", 5);
+        int playersPerClub = args.getInt("players-per-club", 20);
+        double clubSpread = args.getDouble("club-skill-spread", 0.3);
+        double playerSpread = args.getDouble("player-skill-spread", 0.25);
+        if (clubCount < 1 || playersPerClub < 2) {
+            throw new IllegalArgumentException("Expected at least one club of two players");
+        }
+
+        long id = reserveIds(connection, (long) clubCount * playersPerClub);
+        StringBuilder rows = new StringBuilder();
+        for (int club = 0; club < clubCount; club++) {
+            double clubSkill = random.nextGaussian() * clubSpread;
+            List<GeneratedPlayer> members = new ArrayList<>();
+            for (int i = 0; i < playersPerClub; i++) {
+                var player = new GeneratedPlayer(id++, prefix + "-c" + club + "-p" + i, club,
+                        clubSkill + random.nextGaussian() * playerSpread);
+                members.add(player);
+                players.add(player);
+                rows.append(player.id).append(',')
+                        .append(player.name).append(',')
+                        .append("Player").append(',')
+                        .append(player.name).append(',')
+                        .append(16 + random.nextInt(40)).append(',')
+                        .append(TIMESTAMP.format(from)).append('\n');
+            }
+            clubs.add(members);
+        }
+        copy.copy("COPY player (id, name, firstname, lastname, age, registrationdate) FROM STDIN WITH (FORMAT csv)",
+                rows);
+        connection.commit();
+    }
+
+    /**
+     * Cups are played as groups of four followed by a single elimination play-off of the group winners and
+     * runners-up, leagues as a double round robin.
+     */
+    private long generateTournaments(Connection connection, CopyBatch copy) throws SQLException, IOException {
+        int count = args.getInt("tournaments", 20);
+        if (count == 0) {
+            return 0;
+        }
+        long firstId = reserveIds(connection, count);
+        List<TournamentType> types = new ArrayList<>();
+        StringBuilder rows = new StringBuilder();
+        for (int t = 0; t < count; t++) {
+            TournamentType type = random.nextInt(10) < 7 ? TournamentType.CUP : TournamentType.LEAGUE;
+            types.add(type);
+            rows.append(firstId + t).append(',')
+                    .append(prefix).append("-t").append(t).append(',')
+                    .append(type == TournamentType.CUP ? "Cup " : "League ").append(t).append(',')
+                    .append("Generated").append(',')
+                    .append(type).append(',')
+                    .append(TIMESTAMP.format(getTournamentDate(t, count))).append('\n');
+        }
+        copy.copy("COPY tournament (id, name, fullname, description, type, date) FROM STDIN WITH (FORMAT csv)",
+                rows);
+
+        long matches = 0;
+        for (int t = 0; t < count; t++) {
+            TournamentType type = types.get(t);
+            List<GeneratedPlayer> entrants = pickEntrants(type == TournamentType.CUP ? 16 : 8);
+            MatchType matchType = random.nextDouble() < LONG_MATCH_SHARE ? MatchType.LONG : MatchType.SHORT;
+            matches += type == TournamentType.CUP
+                    ? playCup(copy, firstId + t, entrants, matchType, getTournamentDate(t, count))
+                    : playLeague(copy, firstId + t, entrants, matchType, getTournamentDate(t, count));
+        }
+        return matches;
+    }
+
+    private Instant getTournamentDate(int tournament, int count) {
+        return from.plusSeconds(periodSeconds * tournament / count);
+    }
+
+    private List<GeneratedPlayer> pickEntrants(int count) {
+        List<GeneratedPlayer> pool = new ArrayList<>(players);
+        for (int i = 0; i < Math.min(count, pool.size()); i++) {
+            Collections.swap(pool, i, i + random.nextInt(pool.size() - i));
+        }
+        return new ArrayList<>(pool.subList(0, Math.min(count, pool.size())));
+    }
+
+    private long playCup(CopyBatch copy,
+                         long tournamentId,
+                         List<GeneratedPlayer> entrants,
+                         MatchType type,
+                         Instant date) throws SQLException, IOException {
+        long matches = 0;
+        List<GeneratedPlayer> playOff = new ArrayList<>();
+        for (int group = 0; group + 4 <= entrants.size(); group += 4) {
+            List<GeneratedPlayer> members = entrants.subList(group, group + 4);
+            int[] wins = new int[4];
+            for (int i = 0; i < 4; i++) {
+                for (int j = i + 1; j < 4; j++) {
+                    boolean firstWon = play(copy, members.get(i), members.get(j), type, tournamentId,
+                            TournamentStage.GROUP, date.plus(matches++, ChronoUnit.MINUTES));
+                    wins[firstWon ? i : j]++;
+                }
+            }
+            IntStream.range(0, 4).boxed()
+                    .sorted(Comparator.comparing((Integer i) -> wins[i]).reversed())
+                    .limit(2)
+                    .forEach(i -> playOff.add(members.get(i)));
+        }
+        while (playOff.size() > 1) {
+            TournamentStage stage = playOff.size() == 2
+                    ? TournamentStage.GRAND_FINAL
+                    : TournamentStage.PLAY_OFF_UPPER_BRACKET;
+            List<GeneratedPlayer> winners = new ArrayList<>();
+            int size = playOff.size();
+            for (int i = 0; i < size / 2; i++) {
+                GeneratedPlayer left = playOff.get(i);
+                GeneratedPlayer right = playOff.get(size - 1 - i);
+                boolean leftWon = play(copy, left, right, type, tournamentId, stage,
+                        date.plus(matches++, ChronoUnit.MINUTES));
+                winners.add(leftWon ? left : right);
+            }
+            if (size % 2 == 1) {
+                winners.add(playOff.get(size / 2));
+            }
+            playOff.clear();
+            playOff.addAll(winners);
+        }
+        return matches;
+    }
+
+    private long playLeague(CopyBatch copy,
+                            long tournamentId,
+                            List<GeneratedPlayer> entrants,
+                            MatchType type,
+                            Instant date) throws SQLException, IOException {
+        long matches = 0;
+        for (int leg = 0; leg < 2; leg++) {
+            for (int i = 0; i < entrants.size(); i++) {
+                for (int j = i + 1; j < entrants.size(); j++) {
+                    play(copy, entrants.get(i), entrants.get(j), type, tournamentId, TournamentStage.LEAGUE,
+                            date.plus(matches++, ChronoUnit.HOURS));
+                }
+            }
+        }
+        return matches;
+    }
+
+    private void generateFriendlyMatches(long count, CopyBatch copy) throws SQLException, IOException {
+        for (long i = 0; i < count; i++) {
+            GeneratedPlayer player = players.get(random.nextInt(players.size()));
+            List<GeneratedPlayer> pool = random.nextDouble() < SAME_CLUB_SHARE ? clubs.get(player.club) : players;
+            GeneratedPlayer opponent;
+            do {
+                opponent = pool.get(random.nextInt(pool.size()));
+            } while (opponent == player);
+            MatchType type = random.nextDouble() < LONG_MATCH_SHARE ? MatchType.LONG : MatchType.SHORT;
+            Instant date = from.plusSeconds(periodSeconds * i / count + random.nextInt(60));
+            play(copy, player, opponent, type, null, TournamentStage.FRIENDLY, date);
+        }
+    }
+
+    /**
+     * @return whether {@code player} won
+     */
+    private boolean play(CopyBatch copy,
+                         GeneratedPlayer player,
+                         GeneratedPlayer opponent,
+                         MatchType type,
+                         Long tournamentId,
+                         TournamentStage stage,
+                         Instant date) throws SQLException, IOException {
+        double rallyWinProbability = 1 / (1 + Math.exp(opponent.skill - player.skill));
+        int scored = 0;
+        int missed = 0;
+        while (scored < type.getPoints() && missed < type.getPoints()) {
+            if (random.nextDouble() < rallyWinProbability) {
+                scored++;
+            } else {
+                missed++;
+            }
+        }
+        copy.addMatch(type, tournamentId, stage, date, player.id, opponent.id, scored, missed);
+        return scored > missed;
+    }
+
+    private static long reserveIds(Connection connection, long count) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "select setval('hibernate_sequence', nextval('hibernate_sequence') + " + (count - 1) + ")")) {
+            rs.next();
+            return rs.getLong(1) - count + 1;
+        }
+    }
+
+    private record GeneratedPlayer(long id, String name, int club, double skill) {
+    }
+
+    /**
+     * Collects match rows and writes them once {@code size} matches are buffered.
+     */
+    private static class CopyBatch {
+        private final Connection connection;
+        private final CopyManager copyManager;
+        private final int size;
+        private final StringBuilder matches = new StringBuilder();
+        private long nextId;
+        private long lastId = -1;
+        private int buffered;
+
+        private CopyBatch(Connection connection, int size) throws SQLException {
+            this.connection = connection;
+            this.copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            this.size = size;
+        }
+
+        private void addMatch(MatchType type,
+                              Long tournamentId,
+                              TournamentStage stage,
+                              Instant date,
+                              long playerId,
+                              long opponentId,
+                              int scored,
+                              int missed) throws SQLException, IOException {
+            if (nextId > lastId) {
+                nextId = reserveIds(connection, size);
+                lastId = nextId + size - 1;
+            }
+            long id = nextId++;
+            matches.append(id).append(',')
+                    .append(type).append(',')
+                    .append(tournamentId == null ? "" : tournamentId).append(',')
+                    .append(stage).append(',')
+                    .append(TIMESTAMP.format(date)).append(',')
+                    .append(playerId).append(',')
+                    .append(opponentId).append(',')
+                    .append(scored).append(',')
+                    .append(missed).append('\n');
+            if (++buffered >= size) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException, IOException {
+            if (buffered == 0) {
+                connection.commit();
+                return;
+            }
+            copy("COPY match (id, type, tournamentid, stage, date, playerid, opponentid, playerscored, opponentscored) "
+                    + "FROM STDIN WITH (FORMAT csv)", matches);
+            connection.commit();
+            System.out.printf("Copied %d matches%n", buffered);
+            buffered = 0;
+        }
+
+        private void copy(String sql, StringBuilder rows) throws SQLException, IOException {
+            copyManager.copyIn(sql, new StringReader(rows.toString()));
+            rows.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package org.rsinitsyn.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Replays a mixed read/write workload against a running application and prints latency percentiles per endpoint.
+ * Every worker runs a closed loop with its own random split from {@code --seed}, so the sequence of requests is
+ * reproducible. Requests finished during {@code --warmup} seconds are not recorded, 503 responses of the
+ * admission control are counted apart from errors.
+ * <pre>
+ * java -cp target/benchmarks.jar org.rsinitsyn.loadtest.LoadTest \
+ *     --base-url http://localhost:8888/api --threads 8 --duration 60 --write-share 0.05
+ * </pre>
+ */
+public class LoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final String baseUrl;
+    private final HttpClient client;
+    private final List<String> players;
+    private final List<Operation> operations;
+    private final int totalWeight;
+
+    LoadTest(String baseUrl, List<String> players, double writeShare) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.players = players;
+        this.operations = operations(writeShare);
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+    }
+
+    public static void main(String[] argv) throws Exception {
+        var args = new Arguments(argv);
+        String baseUrl = args.get("base-url", "http://localhost:8888/api");
+        int threads = args.getInt("threads", 8);
+        Duration warmup = Duration.ofSeconds(args.getInt("warmup", 10));
+        Duration duration = Duration.ofSeconds(args.getInt("duration", 60));
+
+        List<String> players = fetchPlayers(baseUrl, args.get("prefix", ""));
+        if (players.size() < 2) {
+            throw new IllegalStateException("At least two players are required, found: " + players);
+        }
+        var loadTest = new LoadTest(baseUrl, players, args.getDouble("write-share", 0.05));
+        System.out.printf("Running %d workers for %s after %s of warmup against %d players%n",
+                threads, duration, warmup, players.size());
+        loadTest.run(threads, warmup, duration, args.getLong("seed", 42)).print();
+    }
+
+    Report run(int threads, Duration warmup, Duration duration, long seed) throws Exception {
+        long recordFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = recordFrom + duration.toNanos();
+        var root = new SplittableRandom(seed);
+        List<SplittableRandom> randoms = IntStream.range(0, threads).mapToObj(i -> root.split()).toList();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Map<String, Samples>>> workers = new ArrayList<>();
+            for (SplittableRandom random : randoms) {
+                workers.add(executor.submit(() -> work(random, recordFrom, stopAt)));
+            }
+            var report = new Report(duration);
+            for (Future<Map<String, Samples>> worker : workers) {
+                worker.get().forEach(report::merge);
+            }
+            return report;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<String, Samples> work(SplittableRandom random, long recordFrom, long stopAt) {
+        Map<String, Samples> samples = new LinkedHashMap<>();
+        long now;
+        while ((now = System.nanoTime()) < stopAt) {
+            Operation operation = pick(random);
+            HttpRequest request = operation.request().apply(random, this);
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long finished = System.nanoTime();
+            if (now >= recordFrom) {
+                samples.computeIfAbsent(operation.name(), name -> new Samples()).add(finished - now, status);
+            }
+        }
+        return samples;
+    }
+
+    private Operation pick(SplittableRandom random) {
+        int value = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            value -= operation.weight();
+            if (value < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static List<Operation> operations(double writeShare) {
+        List<Operation> reads = List.of(
+                new Operation("GET /player/stats/{name}", 25,
+                        (random, test) -> test.get("/player/stats/" + encode(test.player(random)))),
+                new Operation("GET /player/history/{name}", 10,
+                        (random, test) -> test.get("/player/history/" + encode(test.player(random)))),
+                new Operation("GET /player/matches/{name}", 10,
+                        (random, test) -> test.get("/player/matches/" + encode(test.player(random)))),
+                new Operation("GET /match/ratings", 10, (random, test) -> test.get("/match/ratings")),
+                new Operation("GET /match/records", 10, (random, test) -> test.get("/match/records")),
+                new Operation("POST /match/predict", 10, (random, test) -> {
+                    String player = test.player(random);
+                    return test.post("/match/predict?name=" + encode(player)
+                            + "&opponent=" + encode(test.opponent(random, player)), "");
+                }),
+                new Operation("POST /match/predict/matrix", 3, (random, test) -> test.post("/match/predict/matrix?"
+                        + random.ints(8, 0, test.players.size())
+                        .mapToObj(i -> "name=" + encode(test.players.get(i)))
+                        .collect(Collectors.joining("&")), "")));
+
+        int readWeight = reads.stream().mapToInt(Operation::weight).sum();
+        int writeWeight = (int) Math.round(readWeight * writeShare / (1 - writeShare));
+        List<Operation> operations = new ArrayList<>(reads);
+        if (writeWeight > 0) {
+            operations.add(new Operation("POST /match", writeWeight, LoadTest::saveMatch));
+        }
+        return operations;
+    }
+
+    private static HttpRequest saveMatch(SplittableRandom random, LoadTest test) {
+        String player = test.player(random);
+        String opponent = test.opponent(random, player);
+        int loserScore = random.nextInt(10);
+        boolean playerWon = random.nextBoolean();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("type", "SHORT");
+        body.put("player", Map.of("name", player, "score", playerWon ? 11 : loserScore));
+        body.put("opponentPlayer", Map.of("name", opponent, "score", playerWon ? loserScore : 11));
+        try {
+            return test.post("/match", MAPPER.writeValueAsString(body));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String player(SplittableRandom random) {
+        return players.get(random.nextInt(players.size()));
+    }
+
+    private String opponent(SplittableRandom random, String player) {
+        String opponent;
+        do {
+            opponent = player(random);
+        } while (opponent.equals(player));
+        return opponent;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static List<String> fetchPlayers(String baseUrl, String prefix) throws IOException, InterruptedException {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/player/all")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        JsonNode players = MAPPER.readTree(response.body());
+        return StreamSupport.stream(players.spliterator(), false)
+                .map(player -> player.get("name").asText())
+                .filter(name -> name.startsWith(prefix))
+                .toList();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private record Operation(String name, int weight, BiFunction<SplittableRandom, LoadTest, HttpRequest> request) {
+    }
+
+    /**
+     * Latencies of one endpoint in nanoseconds.
+     */
+    static class Samples {
+        private long[] latencies = new long[1024];
+        private int size;
+        private int errors;
+        private int rejected;
+
+        void add(long latency, int status) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latency;
+            if (status == 503) {
+                rejected++;
+            } else if (status < 200 || status >= 300) {
+                errors++;
+            }
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.latencies[i], 200);
+            }
+            errors += other.errors;
+            rejected += other.rejected;
+        }
+
+        /**
+         * Nearest-rank percentile in milliseconds.
+         */
+        static double percentile(long[] sorted, double percentile) {
+            int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1_000_000d;
+        }
+    }
+
+    static class Report {
+        private final Duration duration;
+        private final Map<String, Samples> endpoints = new LinkedHashMap<>();
+
+        Report(Duration duration) {
+            this.duration = duration;
+        }
+
+        void merge(String endpoint, Samples samples) {
+            endpoints.computeIfAbsent(endpoint, name -> new Samples()).addAll(samples);
+        }
+
+        void print() {
+            System.out.printf("%n%-30s %9s %7s %8s %9s %9s %9s %9s %9s %9s%n",
+                    "endpoint", "requests", "errors", "rejected", "req/s", "p50 ms", "p90 ms", "p99 ms",
+                    "p99.9 ms", "max ms");
+            endpoints.forEach((endpoint, samples) -> {
+                long[] sorted = Arrays.copyOf(samples.latencies, samples.size);
+                Arrays.sort(sorted);
+                System.out.printf("%-30s %9d %7d %8d %9.1f", endpoint, samples.size, samples.errors,
+                        samples.rejected, samples.size / (double) duration.toSeconds());
+                for (double percentile : PERCENTILES) {
+                    System.out.printf(" %9.1f", Samples.percentile(sorted, percentile));
+                }
+                System.out.printf(" %9.1f%n", sorted[sorted.length - 1] / 1_000_000d);
+            });
+        }
+    }
+}
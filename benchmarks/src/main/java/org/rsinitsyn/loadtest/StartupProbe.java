@@ -0,0 +1,150 @@
+package org.rsinitsyn.loadtest;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts the application repeatedly and reports the time until the first successful response, the time of the
+ * first call of each exercised endpoint and the resident set size (Linux {@code /proc}) after startup and after
+ * the exercise. Meant to compare the JVM and native builds on the same machine and database:
+ * <pre>
+ * java -cp target/benchmarks.jar org.rsinitsyn.loadtest.StartupProbe \
+ *     --jvm "java -jar ../target/quarkus-app/quarkus-run.jar" \
+ *     --native ../target/tennis-stats-api-quarkus-1.0-SNAPSHOT-runner --runs 5
+ * </pre>
+ */
+public class StartupProbe {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+    private final String baseUrl;
+    private final String readyPath;
+    private final List<String> exercisePaths;
+    private final Duration timeout;
+
+    StartupProbe(String baseUrl, String readyPath, List<String> exercisePaths, Duration timeout) {
+        this.baseUrl = baseUrl;
+        this.readyPath = readyPath;
+        this.exercisePaths = exercisePaths;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] argv) throws Exception {
+        var args = new Arguments(argv);
+        var probe = new StartupProbe(
+                args.get("base-url", "http://localhost:8888/api"),
+                args.get("ready-path", "/player/all"),
+                Arrays.asList(args.get("exercise", "/match/ratings,/match/records").split(",")),
+                Duration.ofSeconds(args.getInt("timeout", 120)));
+        int runs = args.getInt("runs", 5);
+
+        Map<String, List<Sample>> results = new LinkedHashMap<>();
+        for (String mode : List.of("jvm", "native")) {
+            String command = args.get(mode, null);
+            if (command == null) {
+                continue;
+            }
+            List<Sample> samples = new ArrayList<>();
+            for (int run = 0; run < runs; run++) {
+                samples.add(probe.run(command.trim().split("\\s+")));
+            }
+            results.put(mode, samples);
+        }
+        if (results.isEmpty()) {
+            throw new IllegalArgumentException("Pass --jvm and/or --native with the command starting the application");
+        }
+        probe.print(results);
+    }
+
+    Sample run(String[] command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long start = System.nanoTime();
+            awaitReady(process, start);
+            long readyNanos = System.nanoTime() - start;
+            long startupRss = readRssKb(process.pid());
+
+            Map<String, Long> firstCalls = new LinkedHashMap<>();
+            for (String path : exercisePaths) {
+                long callStart = System.nanoTime();
+                get(path);
+                firstCalls.put(path, System.nanoTime() - callStart);
+            }
+            return new Sample(readyNanos, startupRss, firstCalls, readRssKb(process.pid()));
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private void awaitReady(Process process, long start) throws IOException, InterruptedException {
+        while (System.nanoTime() - start < timeout.toNanos()) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + process.exitValue());
+            }
+            try {
+                if (get(readyPath) == 200) {
+                    return;
+                }
+            } catch (ConnectException e) {
+                // not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("Application did not answer " + readyPath + " within " + timeout);
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static long readRssKb(long pid) throws IOException {
+        return Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status")).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst()
+                .orElse(-1L);
+    }
+
+    private void print(Map<String, List<Sample>> results) {
+        System.out.printf("%n%-8s %12s %14s %14s", "mode", "ready ms", "RSS ready MB", "RSS after MB");
+        exercisePaths.forEach(path -> System.out.printf(" %24s", "first " + path + " ms"));
+        System.out.println();
+        results.forEach((mode, samples) -> {
+            System.out.printf("%-8s %12.1f %14.1f %14.1f", mode,
+                    median(samples.stream().mapToLong(Sample::readyNanos).toArray()) / 1_000_000d,
+                    median(samples.stream().mapToLong(Sample::startupRssKb).toArray()) / 1024d,
+                    median(samples.stream().mapToLong(Sample::exercisedRssKb).toArray()) / 1024d);
+            exercisePaths.forEach(path -> System.out.printf(" %24.1f",
+                    median(samples.stream().mapToLong(sample -> sample.firstCallNanos().get(path)).toArray())
+                            / 1_000_000d));
+            System.out.println();
+        });
+        System.out.println("Medians over the runs of each mode.");
+    }
+
+    private static long median(long[] values) {
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+
+    record Sample(long readyNanos, long startupRssKb, Map<String, Long> firstCallNanos, long exercisedRssKb) {
+    }
+}
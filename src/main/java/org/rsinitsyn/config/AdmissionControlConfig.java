@@ -0,0 +1,31 @@
+package org.rsinitsyn.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import java.util.Map;
+
+/**
+ * Limits per endpoint class, e.g. {@code admission.classes.analytics.max-concurrent}. A single resource method
+ * can be moved to another class with {@code admission.methods.<Resource>.<method>: <class>}. Every class used in
+ * {@link AdmissionControl} needs all its limits in {@code application.yml}, the only place they are set.
+ */
+@ConfigMapping(prefix = "admission")
+public interface AdmissionControlConfig {
+
+    @WithDefault("true")
+    boolean enabled();
+
+    Map<String, ClassLimits> classes();
+
+    Map<String, Map<String, String>> methods();
+
+    interface ClassLimits {
+        int maxConcurrent();
+
+        int maxQueue();
+
+        long maxWaitMillis();
+
+        int retryAfterSeconds();
+    }
+}
@@ -0,0 +1,130 @@
+package org.rsinitsyn.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+import org.rsinitsyn.exception.ServiceOverloadedException;
+
+@AdmissionControl("")
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE)
+public class AdmissionControlInterceptor {
+
+    @Inject
+    AdmissionControlConfig admissionConfig;
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    @AroundInvoke
+    public Object limit(InvocationContext context) throws Exception {
+        if (!admissionConfig.enabled()) {
+            return context.proceed();
+        }
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(getEndpointClass(context), this::createBulkhead);
+        bulkhead.acquire();
+        try {
+            return context.proceed();
+        } finally {
+            bulkhead.permits.release();
+        }
+    }
+
+    private String getEndpointClass(InvocationContext context) {
+        var method = context.getMethod();
+        return Optional.ofNullable(admissionConfig.methods().get(method.getDeclaringClass().getSimpleName()))
+                .map(methods -> methods.get(method.getName()))
+                .orElseGet(() -> {
+                    AdmissionControl annotation = method.getAnnotation(AdmissionControl.class);
+                    return annotation != null
+                            ? annotation.value()
+                            : method.getDeclaringClass().getAnnotation(AdmissionControl.class).value();
+                });
+    }
+
+    private Bulkhead createBulkhead(String endpointClass) {
+        var limits = admissionConfig.classes().get(endpointClass);
+        if (limits == null) {
+            throw new IllegalStateException("No limits for admission class '" + endpointClass
+                    + "', set admission.classes." + endpointClass);
+        }
+        var bulkhead = new Bulkhead(endpointClass, limits.maxConcurrent(), limits.maxQueue(),
+                limits.maxWaitMillis(), limits.retryAfterSeconds());
+        registry.gauge("admission.queue.depth", Tags.of("class", endpointClass),
+                bulkhead.waiting);
+        registry.gauge("admission.in.flight", Tags.of("class", endpointClass),
+                bulkhead, b -> b.maxConcurrent - b.permits.availablePermits());
+        return bulkhead;
+    }
+
+    private class Bulkhead {
+        private final String name;
+        private final int maxConcurrent;
+        private final int maxQueue;
+        private final long maxWaitMillis;
+        private final int retryAfterSeconds;
+        private final Semaphore permits;
+        private final AtomicInteger waiting = new AtomicInteger(0);
+        private final Counter rejections;
+        private final Timer waitTime;
+
+        private Bulkhead(String name, int maxConcurrent, int maxQueue, long maxWaitMillis, int retryAfterSeconds) {
+            this.name = name;
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueue = maxQueue;
+            this.maxWaitMillis = maxWaitMillis;
+            this.retryAfterSeconds = retryAfterSeconds;
+            this.permits = new Semaphore(maxConcurrent, true);
+            this.rejections = registry.counter("admission.rejections", "class", name);
+            this.waitTime = Timer.builder("admission.wait")
+                    .tag("class", name)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        /**
+         * Takes a free permit right away only when nobody is queued for it: the untimed {@code tryAcquire()}
+         * would barge past the waiters of the fair semaphore.
+         */
+        private void acquire() throws InterruptedException {
+            if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                waitTime.record(0, TimeUnit.NANOSECONDS);
+                return;
+            }
+            if (waiting.incrementAndGet() > maxQueue) {
+                waiting.decrementAndGet();
+                reject();
+            }
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } finally {
+                waiting.decrementAndGet();
+                waitTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (!acquired) {
+                reject();
+            }
+        }
+
+        private void reject() {
+            rejections.increment();
+            throw new ServiceOverloadedException("Too many concurrent '" + name + "' requests, try again later",
+                    retryAfterSeconds);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.rsinitsyn.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event around one aggregation or report rendering, so CPU and allocation samples of a recording
+ * can be attributed to the query that caused them. Fields are only filled in when the event is recorded, which
+ * keeps the cost close to zero while no recording is running.
+ * <pre>
+ * var event = AnalyticsEvent.start();
+ * ...
+ * event.finish("records", null, fields, matches.size(), players.size());
+ * </pre>
+ */
+@Name("org.rsinitsyn.Analytics")
+@Label("Tennis Analytics")
+@Category({"Tennis Stats", "Analytics"})
+@Description("Aggregation or report rendering of the tennis stats service")
+@StackTrace(false)
+public class AnalyticsEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Player")
+    String player;
+
+    @Label("Filter")
+    String filter;
+
+    @Label("Match Count")
+    @Description("Match results the operation went through")
+    int matchCount;
+
+    @Label("Result Size")
+    @Description("Entries, points or bytes produced, depending on the operation")
+    long resultSize;
+
+    public static AnalyticsEvent start() {
+        var event = new AnalyticsEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String operation, String player, Object filter, int matchCount, long resultSize) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.player = player;
+            this.filter = filter == null ? null : filter.toString();
+            this.matchCount = matchCount;
+            this.resultSize = resultSize;
+            commit();
+        }
+    }
+}
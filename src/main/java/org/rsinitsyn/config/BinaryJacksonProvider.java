@@ -0,0 +1,66 @@
+package org.rsinitsyn.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.quarkus.jackson.ObjectMapperCustomizer;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import lombok.SneakyThrows;
+
+/**
+ * Writes responses as CBOR or Smile when the client asks for it in {@code Accept}. The binary mappers get
+ * the same modules and {@link ObjectMapperCustomizer}s as the JSON one, so the payload shape is identical.
+ */
+@Provider
+@Produces({BinaryJacksonProvider.APPLICATION_CBOR, BinaryJacksonProvider.APPLICATION_SMILE})
+public class BinaryJacksonProvider implements MessageBodyWriter<Object> {
+    public static final String APPLICATION_CBOR = "application/cbor";
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+    private static final MediaType CBOR_TYPE = MediaType.valueOf(APPLICATION_CBOR);
+    private static final MediaType SMILE_TYPE = MediaType.valueOf(APPLICATION_SMILE);
+
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+
+    @Inject
+    public BinaryJacksonProvider(Instance<ObjectMapperCustomizer> customizers) {
+        this.cborMapper = customize(new CBORMapper(), customizers);
+        this.smileMapper = customize(new SmileMapper(), customizers);
+    }
+
+    private static ObjectMapper customize(ObjectMapper mapper, Instance<ObjectMapperCustomizer> customizers) {
+        mapper.findAndRegisterModules();
+        customizers.stream()
+                .sorted()
+                .forEach(customizer -> customizer.customize(mapper));
+        return mapper;
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return CBOR_TYPE.isCompatible(mediaType) || SMILE_TYPE.isCompatible(mediaType);
+    }
+
+    @SneakyThrows
+    @Override
+    public void writeTo(Object value,
+                        Class<?> type,
+                        Type genericType,
+                        Annotation[] annotations,
+                        MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders,
+                        OutputStream entityStream) {
+        ObjectMapper mapper = CBOR_TYPE.isCompatible(mediaType) ? cborMapper : smileMapper;
+        mapper.writerFor(mapper.constructType(genericType)).writeValue(entityStream, value);
+    }
+}
@@ -0,0 +1,40 @@
+package org.rsinitsyn.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+/**
+ * Outbox relay mirroring players and matches into Firestore, e.g. {@code outbox.batch-size}. While disabled no
+ * outbox rows are written either.
+ */
+@ConfigMapping(prefix = "outbox")
+public interface FirestoreMirrorConfig {
+
+    @WithDefault("false")
+    boolean enabled();
+
+    /**
+     * Outbox rows per pass, published as one {@code WriteBatch} (at most 500).
+     */
+    @WithDefault("200")
+    int batchSize();
+
+    @WithDefault("500")
+    long pollIntervalMillis();
+
+    /**
+     * Upper bound of the delay between passes after failed publishing, which doubles from the poll interval.
+     */
+    @WithDefault("30000")
+    long maxBackoffMillis();
+
+    @WithDefault("10000")
+    long publishTimeoutMillis();
+
+    /**
+     * Failed attempts after which a row is parked: it stays in the outbox with its last error but is no longer
+     * read, until reset with {@code update outbox_event set attempts = 0}.
+     */
+    @WithDefault("10")
+    int maxAttempts();
+}
@@ -0,0 +1,31 @@
+package org.rsinitsyn.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import javax.enterprise.inject.Produces;
+import javax.inject.Singleton;
+
+public class MetricsConfig {
+
+    /**
+     * Publishes histogram buckets for request, endpoint and stage timers, so percentiles can be aggregated
+     * across instances in Prometheus.
+     */
+    @Produces
+    @Singleton
+    public MeterFilter histograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().startsWith("tennis.") || id.getName().equals("http.server.requests")) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package org.rsinitsyn.config;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import org.rsinitsyn.dto.response.ImportReportResponse;
+import org.rsinitsyn.dto.response.PlayerMatchesResponse;
+import org.rsinitsyn.dto.response.RatingsResponse;
+import org.rsinitsyn.dto.response.RecordsResponse;
+import org.rsinitsyn.service.FirestoreMirror;
+
+/**
+ * Classes the native image cannot discover from entities and resource method signatures: Hibernate instantiates
+ * {@link QueryStatisticsListener} by name, outbox payloads are read back by Jackson, and live feed events,
+ * import reports and errors are written from {@code Response} entities and SSE payloads. Firestore documents are
+ * written and read as maps by {@link org.rsinitsyn.repo.PlayerCodec} and the mirror, so they need nothing here.
+ */
+@RegisterForReflection(targets = {
+        PanacheEntity.class,
+        PanacheEntityBase.class,
+        QueryStatisticsListener.class,
+        RestExceptionHandler.ErrorDto.class,
+        ImportReportResponse.class,
+        PlayerMatchesResponse.class,
+        RatingsResponse.class,
+        RecordsResponse.class,
+        FirestoreMirror.PlayerDocument.class,
+        FirestoreMirror.MatchDocument.class,
+        FirestoreMirror.Side.class
+})
+public class NativeImageConfig {
+}
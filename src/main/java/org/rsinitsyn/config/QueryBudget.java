@@ -0,0 +1,17 @@
+package org.rsinitsyn.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a resource method may prepare per request, checked by
+ * {@link QueryStatisticsFilter}. Exceeding it is logged and counted in {@code tennis.query.budget.exceeded}; tests
+ * assert it with {@code QueryBudgetAssertions}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface QueryBudget {
+    int statements();
+}
@@ -0,0 +1,70 @@
+package org.rsinitsyn.config;
+
+/**
+ * Hibernate work done by the request bound to the current thread: prepared statements, time spent in JDBC and
+ * entities loaded. Filled in by {@link QueryStatisticsListener} and {@link QueryStatisticsInterceptor} between
+ * {@link #begin()} and {@link #end()}; work on other threads (live feed, async jobs) is not attributed to any
+ * request.
+ */
+public final class QueryStatistics {
+
+    private static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private int statements;
+    private long jdbcNanos;
+    private int entitiesLoaded;
+
+    private QueryStatistics() {
+    }
+
+    public static QueryStatistics begin() {
+        var statistics = new QueryStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static QueryStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static QueryStatistics end() {
+        var statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    void statementPrepared() {
+        statements++;
+    }
+
+    void jdbcTime(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    void entityLoaded() {
+        entitiesLoaded++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d statements, %d entities loaded, %d ms in JDBC", statements, entitiesLoaded,
+                jdbcNanos / 1_000_000);
+    }
+}
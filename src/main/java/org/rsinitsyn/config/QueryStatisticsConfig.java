@@ -0,0 +1,18 @@
+package org.rsinitsyn.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+/**
+ * Per-request Hibernate statistics, e.g. {@code query-statistics.slow-request-millis}. Budgets are declared with
+ * {@link QueryBudget} on resource methods.
+ */
+@ConfigMapping(prefix = "query-statistics")
+public interface QueryStatisticsConfig {
+
+    @WithDefault("true")
+    boolean enabled();
+
+    @WithDefault("1000")
+    long slowRequestMillis();
+}
@@ -0,0 +1,84 @@
+package org.rsinitsyn.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import java.util.concurrent.TimeUnit;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Collects {@link QueryStatistics} for every resource method call and publishes them as
+ * {@code tennis.query.statements}, {@code tennis.query.entities} and {@code tennis.query.jdbc}, tagged with the
+ * resource method. Slow requests and requests over their {@link QueryBudget} are logged with their statistics.
+ * The config is looked up per request: RESTEasy creates providers at static init, before runtime config exists.
+ */
+@Provider
+public class QueryStatisticsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    @Inject
+    Instance<QueryStatisticsConfig> config;
+    @Inject
+    MeterRegistry registry;
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        if (config.get().enabled()) {
+            QueryStatistics.begin();
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        QueryStatistics statistics = QueryStatistics.end();
+        if (statistics == null || resourceInfo == null || resourceInfo.getResourceMethod() == null) {
+            return;
+        }
+        String operation = resourceInfo.getResourceClass().getSimpleName()
+                + "." + resourceInfo.getResourceMethod().getName();
+        record(operation, statistics);
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(statistics.getElapsedNanos());
+        QueryBudget budget = getBudget();
+        if (budget != null && statistics.getStatements() > budget.statements()) {
+            registry.counter("tennis.query.budget.exceeded", "operation", operation).increment();
+            Log.warnf("%s exceeded its query budget of %d statements: %s", operation, budget.statements(), statistics);
+        } else if (elapsedMillis >= config.get().slowRequestMillis()) {
+            Log.warnf("Slow request %s %s took %d ms: %s", request.getMethod(),
+                    request.getUriInfo().getPath(), elapsedMillis, statistics);
+        }
+    }
+
+    private QueryBudget getBudget() {
+        QueryBudget budget = resourceInfo.getResourceMethod().getAnnotation(QueryBudget.class);
+        return budget != null ? budget : resourceInfo.getResourceClass().getAnnotation(QueryBudget.class);
+    }
+
+    private void record(String operation, QueryStatistics statistics) {
+        DistributionSummary.builder("tennis.query.statements")
+                .description("SQL statements prepared per request")
+                .tag("operation", operation)
+                .register(registry)
+                .record(statistics.getStatements());
+        DistributionSummary.builder("tennis.query.entities")
+                .description("Entities loaded by Hibernate per request")
+                .tag("operation", operation)
+                .register(registry)
+                .record(statistics.getEntitiesLoaded());
+        Timer.builder("tennis.query.jdbc")
+                .description("Time spent in JDBC per request")
+                .tag("operation", operation)
+                .register(registry)
+                .record(statistics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+    }
+}
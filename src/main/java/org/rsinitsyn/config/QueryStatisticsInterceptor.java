@@ -0,0 +1,27 @@
+package org.rsinitsyn.config;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import java.io.Serializable;
+import javax.enterprise.context.ApplicationScoped;
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+
+/**
+ * Counts entities hydrated by Hibernate into the {@link QueryStatistics} of the current request, which makes
+ * eager {@code Player.matches} / {@code MatchResult} fan-out visible next to the statement count.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class QueryStatisticsInterceptor extends EmptyInterceptor {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+        var statistics = QueryStatistics.current();
+        if (statistics != null) {
+            statistics.entityLoaded();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,57 @@
+package org.rsinitsyn.config;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Counts prepared statements and JDBC time of every Hibernate session into the {@link QueryStatistics} of the
+ * current request. Hibernate creates one instance per session from {@code hibernate.session.events.auto}.
+ */
+public class QueryStatisticsListener extends BaseSessionEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private long prepareStart = -1;
+    private long executeStart = -1;
+    private long batchStart = -1;
+
+    @Override
+    public void jdbcPrepareStatementStart() {
+        prepareStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcPrepareStatementEnd() {
+        var statistics = QueryStatistics.current();
+        if (statistics != null) {
+            statistics.statementPrepared();
+        }
+        prepareStart = record(statistics, prepareStart);
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        executeStart = record(QueryStatistics.current(), executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        batchStart = record(QueryStatistics.current(), batchStart);
+    }
+
+    private static long record(QueryStatistics statistics, long start) {
+        if (statistics != null && start > 0) {
+            statistics.jdbcTime(System.nanoTime() - start);
+        }
+        return -1;
+    }
+}
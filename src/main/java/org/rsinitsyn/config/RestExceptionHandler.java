@@ -1,18 +1,23 @@
 package org.rsinitsyn.config;
 
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.ExceptionMapper;
 import javax.ws.rs.ext.Provider;
+import org.rsinitsyn.exception.ServiceOverloadedException;
 import org.rsinitsyn.exception.TennisApiException;
 
 @Provider
 public class RestExceptionHandler implements ExceptionMapper<TennisApiException> {
     @Override
     public Response toResponse(TennisApiException e) {
-        return Response
+        var response = Response
                 .status(e.getCode())
-                .entity(new ErrorDto(e.getMessage(), e.getCause().getMessage()))
-                .build();
+                .entity(new ErrorDto(e.getMessage(), e.getCause().getMessage()));
+        if (e instanceof ServiceOverloadedException overloaded) {
+            response.header(HttpHeaders.RETRY_AFTER, overloaded.getRetryAfterSeconds());
+        }
+        return response.build();
     }
 
     public record ErrorDto(String message, String cause) {
@@ -0,0 +1,40 @@
+package org.rsinitsyn.config;
+
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import javax.inject.Inject;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Times writing of the response entity (Jackson, CBOR, Smile, report streams) as the {@code serialize} stage of
+ * the resource method that produced it.
+ */
+@Provider
+public class SerializationMetricsInterceptor implements WriterInterceptor {
+
+    @Inject
+    StageMetrics stageMetrics;
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        if (resourceInfo == null || resourceInfo.getResourceMethod() == null) {
+            context.proceed();
+            return;
+        }
+        String operation = resourceInfo.getResourceClass().getSimpleName()
+                + "." + resourceInfo.getResourceMethod().getName();
+        Timer.Sample sample = Timer.start();
+        try {
+            context.proceed();
+        } finally {
+            sample.stop(stageMetrics.timer(operation, StageMetrics.SERIALIZE));
+        }
+    }
+}
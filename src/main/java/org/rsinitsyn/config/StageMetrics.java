@@ -0,0 +1,69 @@
+package org.rsinitsyn.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Times the stages of a service operation ({@code tennis.stage}, tagged with operation and stage) and records
+ * how many rows each operation read ({@code tennis.rows.scanned}). Stages may nest, e.g. sorting inside
+ * aggregation.
+ */
+@ApplicationScoped
+public class StageMetrics {
+
+    public static final String LOAD = "load";
+    public static final String FILTER = "filter";
+    public static final String AGGREGATE = "aggregate";
+    public static final String SORT = "sort";
+    public static final String SIMULATE = "simulate";
+    public static final String RENDER = "render";
+    public static final String SERIALIZE = "serialize";
+
+    @Inject
+    MeterRegistry registry;
+
+    public <T> T time(String operation, String stage, Supplier<T> stageBody) {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            return stageBody.get();
+        } finally {
+            sample.stop(timer(operation, stage));
+        }
+    }
+
+    public <T extends Collection<?>> T scanned(String operation, T rows) {
+        scanned(operation, rows.size());
+        return rows;
+    }
+
+    /**
+     * Counts the rows as they are read, the count is recorded once the stream is closed.
+     */
+    public <T> Stream<T> scanned(String operation, Stream<T> rows) {
+        AtomicInteger count = new AtomicInteger();
+        return rows.peek(row -> count.incrementAndGet())
+                .onClose(() -> scanned(operation, count.get()));
+    }
+
+    public void scanned(String operation, int rows) {
+        DistributionSummary.builder("tennis.rows.scanned")
+                .description("Rows read from the database per operation")
+                .tag("operation", operation)
+                .register(registry)
+                .record(rows);
+    }
+
+    public Timer timer(String operation, String stage) {
+        return Timer.builder("tennis.stage")
+                .tag("operation", operation)
+                .tag("stage", stage)
+                .register(registry);
+    }
+}
@@ -1,7 +1,12 @@
 package org.rsinitsyn.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
@@ -9,9 +14,11 @@ import javax.persistence.FetchType;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(name = "match")
+@BatchSize(size = 100)
 public class Match extends PanacheEntity {
     @Enumerated(EnumType.STRING)
     public MatchType type = MatchType.SHORT;
@@ -21,4 +28,28 @@ public class Match extends PanacheEntity {
     @Enumerated(EnumType.STRING)
     public TournamentStage stage;
     public Instant date;
+    @JsonIgnore
+    @Column(unique = true)
+    public String fingerprint;
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "playerId", referencedColumnName = "id")
+    public Player player;
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "opponentId", referencedColumnName = "id")
+    public Player opponent;
+    public int playerScored;
+    public int opponentScored;
+
+    public static Set<String> findExistingFingerprints(Collection<String> fingerprints) {
+        if (fingerprints.isEmpty()) {
+            return Set.of();
+        }
+        return getEntityManager()
+                .createQuery("select m.fingerprint from Match m where m.fingerprint in :fingerprints", String.class)
+                .setParameter("fingerprints", fingerprints)
+                .getResultStream()
+                .collect(Collectors.toSet());
+    }
 }
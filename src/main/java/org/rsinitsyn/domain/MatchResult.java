@@ -1,7 +1,11 @@
 package org.rsinitsyn.domain;
 
+import java.time.Instant;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.Id;
 import javax.persistence.IdClass;
 import javax.persistence.JoinColumn;
@@ -9,17 +13,26 @@ import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Immutable;
 import org.hibernate.annotations.NotFound;
 import org.hibernate.annotations.NotFoundAction;
 
+/**
+ * A match from the point of view of one of its players. Matches are stored once, {@code match_result} is a view
+ * with a row per player; results of a new match are built with {@link #ofPlayer} and {@link #ofOpponent}.
+ * <p>
+ * Type, stage, tournament id and date are read from the same match row, so filtering and sorting do not need
+ * the lazily loaded {@link Match}.
+ */
 @Entity
+@Immutable
 @Table(name = "match_result")
 @IdClass(MatchResultId.class)
 @Setter
 @Getter
 public class MatchResult {
     @Id
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "matchid", referencedColumnName = "id")
     private Match match;
     @Id
@@ -36,4 +49,34 @@ public class MatchResult {
     @ManyToOne
     @JoinColumn(name = "opponentid", referencedColumnName = "id", nullable = false)
     private Player opponent;
+    @Enumerated(EnumType.STRING)
+    private MatchType type;
+    @Enumerated(EnumType.STRING)
+    private TournamentStage stage;
+    private Long tournamentId;
+    private Instant date;
+
+    public static MatchResult ofPlayer(Match match) {
+        return of(match, match.player, match.opponent, match.playerScored, match.opponentScored);
+    }
+
+    public static MatchResult ofOpponent(Match match) {
+        return of(match, match.opponent, match.player, match.opponentScored, match.playerScored);
+    }
+
+    private static MatchResult of(Match match, Player player, Player opponent, int scored, int missed) {
+        MatchResult matchResult = new MatchResult();
+        matchResult.setMatch(match);
+        matchResult.setPlayer(player);
+        matchResult.setOpponent(opponent);
+        matchResult.setScored(scored);
+        matchResult.setMissed(missed);
+        matchResult.setWinner(scored > missed);
+        matchResult.setExtraRound(Math.abs(scored - missed) == 1);
+        matchResult.setType(match.type);
+        matchResult.setStage(match.stage);
+        matchResult.setTournamentId(match.tournament == null ? null : match.tournament.id);
+        matchResult.setDate(match.date);
+        return matchResult;
+    }
 }
@@ -0,0 +1,29 @@
+package org.rsinitsyn.domain;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import java.time.Instant;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * Firestore document waiting to be mirrored, written in the transaction that changed its source rows and deleted
+ * once published. Rows are published in id order, rows failing {@code outbox.max-attempts} times are parked.
+ */
+@Entity
+@Table(name = "outbox_event")
+public class OutboxEvent extends PanacheEntity {
+    public String collection;
+    public String documentId;
+    @Column(columnDefinition = "text", nullable = false)
+    public String payload;
+    public Instant createdAt;
+    @Column(nullable = false, columnDefinition = "INTEGER DEFAULT 0")
+    public int attempts;
+    @Column(length = 1000)
+    public String lastError;
+    /**
+     * Not read before, set on rows that failed and on the rows held back behind them.
+     */
+    public Instant retryAt;
+}
@@ -1,11 +1,12 @@
 package org.rsinitsyn.dto.request;
 
+import java.time.Instant;
 import java.util.Optional;
 import org.rsinitsyn.domain.MatchType;
 import org.rsinitsyn.domain.TournamentStage;
 
 public record CreateMatchDto(MatchType type, PlayerResultDto player, PlayerResultDto opponentPlayer,
-                             TournamentInfo tournamentInfo) {
+                             TournamentInfo tournamentInfo, Instant date) {
     public record PlayerResultDto(String name, int score) {
     }
 
@@ -0,0 +1,48 @@
+package org.rsinitsyn.dto.request;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.ws.rs.QueryParam;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.rsinitsyn.exception.TennisApiException;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FieldsFilter {
+    @QueryParam("fields")
+    private List<String> fields = new ArrayList<>();
+
+    public static FieldsFilter all() {
+        return new FieldsFilter();
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.isEmpty() || requested().anyMatch(field::equals);
+    }
+
+    /**
+     * Fails with 400 when a requested field is not one of {@code validFields}, the fields of the response.
+     */
+    public FieldsFilter validate(List<String> validFields) {
+        List<String> unknown = fields == null ? List.of() : requested()
+                .filter(field -> !validFields.contains(field))
+                .distinct()
+                .toList();
+        if (!unknown.isEmpty()) {
+            throw new TennisApiException("Unknown fields " + unknown + ", valid fields are " + validFields, 400);
+        }
+        return this;
+    }
+
+    private Stream<String> requested() {
+        return fields.stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty());
+    }
+}
@@ -1,5 +1,6 @@
 package org.rsinitsyn.dto.request;
 
+import java.time.Instant;
 import lombok.Data;
 import org.rsinitsyn.domain.MatchType;
 
@@ -8,4 +9,6 @@ public class ImportSingleMatchesDto {
     private String content;
     private MatchType matchType;
     private CreateMatchDto.TournamentInfo tournamentInfo;
+    private Instant date;
+    private String idempotencyKey;
 }
@@ -0,0 +1,45 @@
+package org.rsinitsyn.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ImportReportResponse {
+    private int total;
+    private int accepted;
+    private int duplicates;
+    private int rejected;
+    private List<RejectedLineDto> rejectedLines = new ArrayList<>();
+    private boolean truncated;
+    private String error;
+
+    public void accept(int count) {
+        total += count;
+        accepted += count;
+    }
+
+    public void duplicate(int count) {
+        total += count;
+        duplicates += count;
+    }
+
+    public void reject(long line, String content, String reason) {
+        total++;
+        rejected++;
+        rejectedLines.add(new RejectedLineDto(line, content, reason));
+    }
+
+    /**
+     * Marks the report as covering only the lines read before the content failed, the rest was never seen.
+     */
+    public void truncate(String reason) {
+        truncated = true;
+        error = reason;
+    }
+
+    public record RejectedLineDto(long line, String content, String reason) {
+    }
+}
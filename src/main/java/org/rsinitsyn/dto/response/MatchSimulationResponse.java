@@ -0,0 +1,26 @@
+package org.rsinitsyn.dto.response;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.rsinitsyn.domain.MatchType;
+
+@AllArgsConstructor
+@Data
+public class MatchSimulationResponse {
+
+    private String leftPlayer;
+    private String rightPlayer;
+    private MatchType matchType;
+    private int simulations;
+    private long seed;
+    private double rallyWinProbability;
+    private ProbabilityDto winProbability;
+    private List<ScoreProbabilityDto> scores;
+
+    public record ProbabilityDto(double value, double lower, double upper) {
+    }
+
+    public record ScoreProbabilityDto(String score, double probability, double lower, double upper) {
+    }
+}
@@ -1,5 +1,6 @@
 package org.rsinitsyn.dto.response;
 
+import java.util.List;
 import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,22 +19,26 @@ public class PlayerStatsResponse {
     @Builder
     @Data
     public static final class PlayerStatsDto {
-        private final int matches;
-        private final int wins;
-        private final int loses;
-        private final double winRate;
-        private final int overtimes;
+        public static final List<String> FIELDS = List.of("matches", "wins", "loses", "winRate", "overtimes",
+                "winStreak", "loseStreak", "pointsScored", "pointsMissed", "avgPointsScored", "avgPointsMissed",
+                "medianPointsScored", "medianPointsMissed", "pointsRate", "scoredTrend", "missedTrend");
 
-        private final int winStreak;
-        private final int loseStreak;
+        private final Integer matches;
+        private final Integer wins;
+        private final Integer loses;
+        private final Double winRate;
+        private final Integer overtimes;
 
-        private final int pointsScored;
-        private final int pointsMissed;
-        private final double avgPointsScored;
-        private final double avgPointsMissed;
-        private final int medianPointsScored;
-        private final int medianPointsMissed;
-        private final double pointsRate;
+        private final Integer winStreak;
+        private final Integer loseStreak;
+
+        private final Integer pointsScored;
+        private final Integer pointsMissed;
+        private final Double avgPointsScored;
+        private final Double avgPointsMissed;
+        private final Integer medianPointsScored;
+        private final Integer medianPointsMissed;
+        private final Double pointsRate;
 
         private Map<Integer, Integer> scoredTrend;
         private Map<Integer, Integer> missedTrend;
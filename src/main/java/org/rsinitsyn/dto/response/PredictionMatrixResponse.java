@@ -0,0 +1,29 @@
+package org.rsinitsyn.dto.response;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.rsinitsyn.domain.MatchType;
+import org.rsinitsyn.domain.TournamentStage;
+
+@AllArgsConstructor
+@Data
+public class PredictionMatrixResponse {
+
+    private MatchType matchType;
+    private List<String> players;
+    /**
+     * Player -> opponent -> probability in percent that the player wins the game.
+     */
+    private Map<String, Map<String, Double>> winProbability;
+    private CupSimulationDto cup;
+
+    public record CupSimulationDto(int simulations, long seed, Map<String, CupPlayerDto> players) {
+    }
+
+    public record CupPlayerDto(List<Double> rounds,
+                               Map<TournamentStage, Double> stages,
+                               MatchSimulationResponse.ProbabilityDto winProbability) {
+    }
+}
@@ -15,6 +15,9 @@ public class RatingsResponse {
     @Data
     @Builder
     public static class RatingsListDto {
+        public static final List<String> FIELDS = List.of("matches", "winRate", "winStreak", "loseStreak",
+                "avgScored", "avgMissed", "pointsRate");
+
         private List<PlayerValueDto> matches;
         private List<PlayerValueDto> winRate;
         private List<PlayerValueDto> winStreak;
@@ -1,5 +1,6 @@
 package org.rsinitsyn.dto.response;
 
+import java.util.List;
 import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,6 +15,9 @@ public class RecordsResponse {
     @Builder
     @Data
     public static class RecordListDto {
+        public static final List<String> FIELDS = List.of("matches", "wins", "loses", "winRate", "winStreak",
+                "loseStreak", "pointsScored", "avgPointsScored", "pointsMissed", "avgPointsMissed", "pointsRate");
+
         private RecordDto matches;
         private RecordDto wins;
         private RecordDto loses;
@@ -0,0 +1,15 @@
+package org.rsinitsyn.exception;
+
+import lombok.Getter;
+
+public class ServiceOverloadedException extends TennisApiException {
+    private static final long serialVersionUID = 1L;
+
+    @Getter
+    private final int retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, int retryAfterSeconds) {
+        super(message, 503);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
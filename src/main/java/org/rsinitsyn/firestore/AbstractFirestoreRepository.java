@@ -1,35 +1,61 @@
 package org.rsinitsyn.firestore;
 
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
 import com.google.cloud.firestore.CollectionReference;
 import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
 import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
 import com.google.cloud.firestore.QueryDocumentSnapshot;
-import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteBatch;
 import com.google.cloud.firestore.WriteResult;
-import com.google.cloud.firestore.annotation.DocumentId;
+import com.google.common.util.concurrent.MoreExecutors;
 import io.quarkus.logging.Log;
 import java.lang.reflect.ParameterizedType;
-import java.util.Arrays;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
-import lombok.SneakyThrows;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.rsinitsyn.exception.TennisApiException;
 
 public abstract class AbstractFirestoreRepository<T> {
 
+    private final Firestore firestore;
     private final CollectionReference collectionReference;
     private final String collectionName;
     private final Class<T> parameterizedType;
+    private final FirestoreRepositoryConfig config;
+    private final FirestoreCodec<T> codec;
 
-    protected AbstractFirestoreRepository(Firestore firestore, String collection) {
+    /**
+     * Uses {@link DocumentIdCodec}: the id comes from the {@link com.google.cloud.firestore.annotation.DocumentId}
+     * field and documents are mapped by the Firestore client.
+     */
+    protected AbstractFirestoreRepository(Firestore firestore, String collection, FirestoreRepositoryConfig config) {
+        this(firestore, collection, config, null);
+    }
+
+    protected AbstractFirestoreRepository(Firestore firestore, String collection, FirestoreRepositoryConfig config,
+                                          FirestoreCodec<T> codec) {
+        this.firestore = firestore;
         this.collectionReference = firestore.collection(collection);
         this.collectionName = collection;
         this.parameterizedType = getParameterizedType();
+        this.config = config;
+        this.codec = codec == null ? DocumentIdCodec.forType(parameterizedType) : codec;
     }
 
     private Class<T> getParameterizedType() {
@@ -37,96 +63,225 @@ public abstract class AbstractFirestoreRepository<T> {
         return (Class<T>) type.getActualTypeArguments()[0];
     }
 
+    /**
+     * @throws TennisApiException when the write fails, like every blocking method of the repository
+     */
     public boolean save(T model) {
         String documentId = getDocumentId(model);
-        ApiFuture<WriteResult> resultApiFuture = collectionReference.document(documentId).set(model);
-        try {
-            var time = resultApiFuture.get().getUpdateTime();
-            Log.error(String.format("Saved successfully %s=%s", collectionName, documentId));
-            return true;
-        } catch (InterruptedException | ExecutionException e) {
-            Log.error(String.format("Error saving %s=%s", collectionName, documentId), e);
+        await(saveAsync(model, documentId), "save " + collectionName + "=" + documentId);
+        return true;
+    }
+
+    public CompletionStage<WriteResult> saveAsync(T model) {
+        return saveAsync(model, getDocumentId(model));
+    }
+
+    private CompletionStage<WriteResult> saveAsync(T model, String documentId) {
+        return toCompletionStage(collectionReference.document(documentId).set(codec.encode(model)))
+                .whenComplete((result, e) -> {
+                    if (e == null) {
+                        Log.debugf("Saved successfully %s=%s", collectionName, documentId);
+                    }
+                });
+    }
+
+    /**
+     * Writes the models in {@link WriteBatch}es of {@code firestore.write.batch-size} documents. At most
+     * {@code firestore.write.max-in-flight} batches are committed at a time: each further batch is chained after
+     * the one {@code max-in-flight} positions before it, so thousands of documents take a few round-trips without
+     * flooding the client. Batches are atomic on their own, not as a whole: the stage fails with the first failed
+     * batch, and batches that were already committed stay written.
+     *
+     * @return stage completed with the number of saved documents
+     */
+    public CompletionStage<Integer> saveAllAsync(List<T> models) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < models.size(); from += config.write().batchSize()) {
+            batches.add(models.subList(from, Math.min(from + config.write().batchSize(), models.size())));
+        }
+        List<CompletableFuture<Integer>> lanes = new ArrayList<>();
+        for (int i = 0; i < batches.size(); i++) {
+            List<T> batch = batches.get(i);
+            if (lanes.size() < config.write().maxInFlight()) {
+                lanes.add(commit(batch).toCompletableFuture());
+            } else {
+                int lane = i % config.write().maxInFlight();
+                lanes.set(lane, lanes.get(lane).thenCompose(saved -> commit(batch).thenApply(count -> saved + count)));
+            }
         }
+        return CompletableFuture.allOf(lanes.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> lanes.stream().mapToInt(CompletableFuture::join).sum());
+    }
 
-        return false;
+    public int saveAll(List<T> models) {
+        return await(saveAllAsync(models), "save " + models.size() + " documents to " + collectionName);
+    }
 
+    private CompletionStage<Integer> commit(List<T> models) {
+        WriteBatch batch = firestore.batch();
+        models.forEach(model -> batch.set(collectionReference.document(getDocumentId(model)), codec.encode(model)));
+        return toCompletionStage(batch.commit())
+                .thenApply(results -> {
+                    Log.debugf("Saved batch of %d to %s", results.size(), collectionName);
+                    return results.size();
+                });
     }
 
-    @SneakyThrows
     public boolean delete(T model) {
-        String documentId = getDocumentId(model);
-        ApiFuture<WriteResult> resultApiFuture = collectionReference.document(documentId).delete();
-        resultApiFuture.get();
+        await(deleteAsync(model), "delete " + collectionName + "=" + getDocumentId(model));
         return true;
     }
 
-    public List<T> findAll() {
-        ApiFuture<QuerySnapshot> querySnapshotApiFuture = collectionReference.get();
-        try {
-            List<QueryDocumentSnapshot> queryDocumentSnapshots = querySnapshotApiFuture.get().getDocuments();
+    public CompletionStage<WriteResult> deleteAsync(T model) {
+        return toCompletionStage(collectionReference.document(getDocumentId(model)).delete());
+    }
 
-            return queryDocumentSnapshots.stream()
-                    .map(queryDocumentSnapshot -> queryDocumentSnapshot.toObject(parameterizedType))
-                    .collect(Collectors.toList());
+    /**
+     * Reads the whole collection page by page, see {@link #streamAll(int, String...)}.
+     */
+    public List<T> findAll() {
+        try (Stream<T> documents = streamAll(config.read().pageSize())) {
+            return documents.collect(Collectors.toList());
+        }
+    }
 
-        } catch (InterruptedException | ExecutionException e) {
-            Log.error("Exception occurred while retrieving all document for " + collectionName);
+    /**
+     * Lazily pages through the collection ordered by document id, each page starting after the last document of
+     * the previous one, so only one page of {@code pageSize} documents is held at a time. With {@code fields},
+     * only those fields are read ({@code select}) and the rest of the model stays unset. A failed page is retried
+     * {@code firestore.read.max-attempts} times before the stream throws.
+     */
+    public Stream<T> streamAll(int pageSize, String... fields) {
+        Query query = collectionReference.orderBy(FieldPath.documentId()).limit(pageSize);
+        if (fields.length > 0) {
+            query = query.select(fields);
         }
-        return Collections.<T>emptyList();
+        var pages = new PageIterator(query, pageSize);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED), false)
+                .flatMap(List::stream)
+                .map(document -> codec.decode(document, parameterizedType));
+    }
 
+    /**
+     * Reads the collection in a single request, prefer {@link #streamAll} for large collections.
+     */
+    public CompletionStage<List<T>> findAllAsync() {
+        return toCompletionStage(collectionReference.get())
+                .thenApply(snapshot -> snapshot.getDocuments().stream()
+                        .map(queryDocumentSnapshot -> codec.decode(queryDocumentSnapshot, parameterizedType))
+                        .collect(Collectors.toList()));
     }
 
 
+    /**
+     * @return empty when there is no such document; a failed read throws {@link TennisApiException}
+     */
     public Optional<T> get(String documentId) {
+        return await(getAsync(documentId), "read " + collectionName + "=" + documentId);
+    }
+
+    public CompletionStage<Optional<T>> getAsync(String documentId) {
         DocumentReference documentReference = collectionReference.document(documentId);
-        ApiFuture<DocumentSnapshot> documentSnapshotApiFuture = documentReference.get();
+        return toCompletionStage(documentReference.get())
+                .thenApply(documentSnapshot -> documentSnapshot.exists()
+                        ? Optional.ofNullable(codec.decode(documentSnapshot, parameterizedType))
+                        : Optional.empty());
+    }
 
+    private static <R> R await(CompletionStage<R> stage, String action) {
         try {
-            DocumentSnapshot documentSnapshot = documentSnapshotApiFuture.get();
+            return stage.toCompletableFuture().get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            throw new TennisApiException("Fail to " + action, cause, 500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TennisApiException("Interrupted to " + action, e, 500);
+        }
+    }
 
-            if (documentSnapshot.exists()) {
-                return Optional.ofNullable(documentSnapshot.toObject(parameterizedType));
-            }
+    private class PageIterator implements Iterator<List<QueryDocumentSnapshot>> {
+        private final Query query;
+        private final int pageSize;
+        private QueryDocumentSnapshot last;
+        private boolean finished;
 
-        } catch (InterruptedException | ExecutionException e) {
-            Log.error(String.format("Error retrieving %s=%s", collectionName, documentId), e);
+        private PageIterator(Query query, int pageSize) {
+            this.query = query;
+            this.pageSize = pageSize;
         }
 
-        return Optional.empty();
+        @Override
+        public boolean hasNext() {
+            return !finished;
+        }
 
-    }
+        @Override
+        public List<QueryDocumentSnapshot> next() {
+            if (finished) {
+                throw new NoSuchElementException();
+            }
+            List<QueryDocumentSnapshot> page = fetch(last == null ? query : query.startAfter(last));
+            if (page.size() < pageSize) {
+                finished = true;
+            } else {
+                last = page.get(page.size() - 1);
+            }
+            return page;
+        }
 
+        private List<QueryDocumentSnapshot> fetch(Query page) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return page.get().get().getDocuments();
+                } catch (ExecutionException e) {
+                    if (attempt >= config.read().maxAttempts()) {
+                        throw new TennisApiException("Fail to read " + collectionName + " after " + attempt
+                                + " attempts", e.getCause(), 500);
+                    }
+                    Log.warnf("Fail to read a page of %s, attempt %d: %s", collectionName, attempt,
+                            e.getCause().getMessage());
+                    sleep(attempt * config.read().retryBackoffMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TennisApiException("Interrupted reading " + collectionName, e, 500);
+                }
+            }
+        }
 
-    protected String getDocumentId(T t) {
-        Object key;
-        Class clzz = t.getClass();
-        do {
-            key = getKeyFromFields(clzz, t);
-            clzz = clzz.getSuperclass();
-        } while (key == null && clzz != null);
-
-        if (key == null) {
-            return UUID.randomUUID().toString();
+        private void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TennisApiException("Interrupted reading " + collectionName, e, 500);
+            }
         }
-        return String.valueOf(key);
     }
 
-    private Object getKeyFromFields(Class<?> clazz, Object t) {
-        return Arrays.stream(clazz.getDeclaredFields())
-                .filter(field -> field.isAnnotationPresent(DocumentId.class))
-                .findFirst()
-                .map(field -> getValue(t, field))
-                .orElse(null);
+    /**
+     * Completes on the gRPC callback thread, without blocking a caller thread per document.
+     */
+    private static <V> CompletionStage<V> toCompletionStage(ApiFuture<V> apiFuture) {
+        var future = new CompletableFuture<V>();
+        ApiFutures.addCallback(apiFuture, new ApiFutureCallback<>() {
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onSuccess(V result) {
+                future.complete(result);
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
     }
 
-    private Object getValue(Object t, java.lang.reflect.Field field) {
-        field.setAccessible(true);
-        try {
-            return field.get(t);
-        } catch (IllegalAccessException e) {
-            Log.error("Error in getting documentId key", e);
-        }
-        return null;
+
+    protected String getDocumentId(T t) {
+        String key = codec.getId(t);
+        return key == null ? UUID.randomUUID().toString() : key;
     }
 
     protected CollectionReference getCollectionReference() {
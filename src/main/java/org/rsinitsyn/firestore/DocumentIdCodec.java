@@ -0,0 +1,56 @@
+package org.rsinitsyn.firestore;
+
+import com.google.cloud.firestore.annotation.DocumentId;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import lombok.SneakyThrows;
+
+/**
+ * Default {@link FirestoreCodec}: the id is read from the field annotated with {@link DocumentId}, searched in the
+ * class hierarchy once per model class and kept as a {@link MethodHandle}. Mapping is left to the Firestore client.
+ */
+public final class DocumentIdCodec<T> implements FirestoreCodec<T> {
+
+    private static final ClassValue<MethodHandle> ID_GETTERS = new ClassValue<>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            return findIdGetter(type);
+        }
+    };
+
+    private final MethodHandle idGetter;
+
+    private DocumentIdCodec(Class<T> type) {
+        this.idGetter = ID_GETTERS.get(type);
+    }
+
+    public static <T> DocumentIdCodec<T> forType(Class<T> type) {
+        return new DocumentIdCodec<>(type);
+    }
+
+    @Override
+    @SneakyThrows
+    public String getId(T model) {
+        if (idGetter == null) {
+            return null;
+        }
+        Object key = idGetter.invoke(model);
+        return key == null ? null : String.valueOf(key);
+    }
+
+    @SneakyThrows
+    private static MethodHandle findIdGetter(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.isAnnotationPresent(DocumentId.class)) {
+                    field.setAccessible(true);
+                    return MethodHandles.lookup().unreflectGetter(field)
+                            .asType(MethodType.methodType(Object.class, Object.class));
+                }
+            }
+        }
+        return null;
+    }
+}
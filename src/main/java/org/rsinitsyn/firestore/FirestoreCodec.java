@@ -0,0 +1,28 @@
+package org.rsinitsyn.firestore;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+
+/**
+ * Maps a model to a Firestore document and back. A repository resolves its codec once, so nothing is looked up
+ * per document. The defaults leave the mapping to the Firestore client; collections whose models the client
+ * cannot map, or that are written often, implement {@link #encode} and {@link #decode} by hand.
+ */
+public interface FirestoreCodec<T> {
+
+    /**
+     * Document id of the model, {@code null} lets the repository generate one.
+     */
+    String getId(T model);
+
+    /**
+     * Document data: a {@code Map<String, Object>} of Firestore types, or the model itself for the client's
+     * reflective mapping.
+     */
+    default Object encode(T model) {
+        return model;
+    }
+
+    default T decode(DocumentSnapshot snapshot, Class<T> type) {
+        return snapshot.toObject(type);
+    }
+}
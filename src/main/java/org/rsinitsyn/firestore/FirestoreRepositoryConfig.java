@@ -0,0 +1,41 @@
+package org.rsinitsyn.firestore;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+/**
+ * Batching and paging of {@link AbstractFirestoreRepository}, e.g. {@code firestore.write.batch-size} or
+ * {@code firestore.read.page-size}.
+ */
+@ConfigMapping(prefix = "firestore")
+public interface FirestoreRepositoryConfig {
+
+    Write write();
+
+    Read read();
+
+    interface Write {
+        /**
+         * Documents per {@code WriteBatch}, Firestore accepts at most 500.
+         */
+        @WithDefault("500")
+        int batchSize();
+
+        @WithDefault("4")
+        int maxInFlight();
+    }
+
+    interface Read {
+        @WithDefault("500")
+        int pageSize();
+
+        /**
+         * Attempts per page before a paginated read fails.
+         */
+        @WithDefault("3")
+        int maxAttempts();
+
+        @WithDefault("200")
+        long retryBackoffMillis();
+    }
+}
@@ -1,20 +1,46 @@
 package org.rsinitsyn.repo;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
-import java.util.LinkedHashMap;
+import java.util.Collection;
 import java.util.List;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.enterprise.context.ApplicationScoped;
+import org.rsinitsyn.domain.Match;
 import org.rsinitsyn.domain.MatchResult;
 import org.rsinitsyn.domain.MatchResultId;
 
 @ApplicationScoped
 public class MatchResultRepo implements PanacheRepositoryBase<MatchResult, MatchResultId> {
 
+    /**
+     * Every match once, from the point of view of the player who was recorded first.
+     */
     public List<MatchResult> findAllDistinct() {
-        return streamAll()
-                .collect(Collectors.toMap(MatchResult::getMatch, Function.identity(), (mr1, mr2) -> mr1, LinkedHashMap::new))
-                .values().stream().toList();
+        return Match.<Match>find("from Match m join fetch m.player join fetch m.opponent")
+                .stream()
+                .map(MatchResult::ofPlayer)
+                .toList();
+    }
+
+    /**
+     * Every match of the tournament once, see {@link #findAllDistinct()}.
+     */
+    public List<MatchResult> findDistinctByTournament(Long tournamentId) {
+        return Match.<Match>find("from Match m join fetch m.player join fetch m.opponent where m.tournament.id = ?1",
+                        tournamentId)
+                .stream()
+                .map(MatchResult::ofPlayer)
+                .toList();
+    }
+
+    /**
+     * Match results of the tournament, to be closed by the caller.
+     */
+    public Stream<MatchResult> streamByTournament(Long tournamentId) {
+        return stream("tournamentId", tournamentId);
+    }
+
+    public List<MatchResult> findByPlayerNames(Collection<String> names) {
+        return list("player.name in ?1", names);
     }
 }
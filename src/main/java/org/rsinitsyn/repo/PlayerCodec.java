@@ -0,0 +1,56 @@
+package org.rsinitsyn.repo;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import java.util.HashMap;
+import java.util.Map;
+import org.rsinitsyn.domain.Player;
+import org.rsinitsyn.firestore.FirestoreCodec;
+
+/**
+ * Hand-written mapping of {@link Player}: the database id is the document id and only the profile fields are
+ * stored, match results stay in PostgreSQL.
+ */
+public class PlayerCodec implements FirestoreCodec<Player> {
+
+    @Override
+    public String getId(Player player) {
+        return player.id == null ? null : String.valueOf(player.id);
+    }
+
+    @Override
+    public Object encode(Player player) {
+        Map<String, Object> document = new HashMap<>(8);
+        document.put("name", player.name);
+        document.put("firstName", player.firstName);
+        document.put("lastName", player.lastName);
+        document.put("age", player.age);
+        document.put("registrationDate", player.registrationDate == null
+                ? null
+                : Timestamp.ofTimeSecondsAndNanos(player.registrationDate.getEpochSecond(),
+                player.registrationDate.getNano()));
+        return document;
+    }
+
+    @Override
+    public Player decode(DocumentSnapshot snapshot, Class<Player> type) {
+        var player = new Player();
+        player.id = parseId(snapshot.getId());
+        player.name = snapshot.getString("name");
+        player.firstName = snapshot.getString("firstName");
+        player.lastName = snapshot.getString("lastName");
+        Long age = snapshot.getLong("age");
+        player.age = age == null ? 0 : age.intValue();
+        Timestamp registrationDate = snapshot.getTimestamp("registrationDate");
+        player.registrationDate = registrationDate == null ? null : registrationDate.toSqlTimestamp().toInstant();
+        return player;
+    }
+
+    private static Long parseId(String documentId) {
+        try {
+            return Long.valueOf(documentId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -5,15 +5,16 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import org.rsinitsyn.domain.Player;
 import org.rsinitsyn.firestore.AbstractFirestoreRepository;
+import org.rsinitsyn.firestore.FirestoreRepositoryConfig;
 
 @ApplicationScoped
 public class PlayersCollection extends AbstractFirestoreRepository<Player> {
     @Inject
-    public PlayersCollection(Firestore firestore) {
-        this(firestore, "players");
+    public PlayersCollection(Firestore firestore, FirestoreRepositoryConfig config) {
+        this(firestore, "players", config);
     }
 
-    protected PlayersCollection(Firestore firestore, String collection) {
-        super(firestore, collection);
+    protected PlayersCollection(Firestore firestore, String collection, FirestoreRepositoryConfig config) {
+        super(firestore, collection, config, new PlayerCodec());
     }
 }
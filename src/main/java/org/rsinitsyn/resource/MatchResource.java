@@ -1,29 +1,46 @@
 package org.rsinitsyn.resource;
 
+import io.micrometer.core.annotation.Timed;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 import javax.inject.Inject;
 import javax.ws.rs.BeanParam;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.rsinitsyn.config.AdmissionControl;
+import org.rsinitsyn.config.BinaryJacksonProvider;
+import org.rsinitsyn.config.QueryBudget;
 import org.rsinitsyn.domain.Match;
 import org.rsinitsyn.domain.MatchType;
+import org.rsinitsyn.domain.TournamentStage;
 import org.rsinitsyn.dto.request.BaseFilter;
 import org.rsinitsyn.dto.request.CreateMatchDto;
+import org.rsinitsyn.dto.request.FieldsFilter;
 import org.rsinitsyn.dto.request.ImportSingleMatchesDto;
+import org.rsinitsyn.dto.response.ImportReportResponse;
 import org.rsinitsyn.dto.response.MatchPredictionResponse;
+import org.rsinitsyn.dto.response.MatchSimulationResponse;
+import org.rsinitsyn.dto.response.PredictionMatrixResponse;
 import org.rsinitsyn.dto.response.RatingProgressResponse;
 import org.rsinitsyn.dto.response.RatingsResponse;
 import org.rsinitsyn.dto.response.RecordsResponse;
 import org.rsinitsyn.service.ImportService;
+import org.rsinitsyn.service.LiveFeedService;
 import org.rsinitsyn.service.TennisService;
 
+@Timed(value = "tennis.endpoint", description = "Resource method invocation time", histogram = true)
 @Path("/match")
 public class MatchResource {
 
@@ -31,6 +48,15 @@ public class MatchResource {
     TennisService service;
     @Inject
     ImportService importService;
+    @Inject
+    LiveFeedService liveFeedService;
+
+    @ConfigProperty(name = "predict.simulation.default-count", defaultValue = "10000")
+    int defaultSimulations;
+    @ConfigProperty(name = "predict.simulation.max-count", defaultValue = "1000000")
+    int maxSimulations;
+    @ConfigProperty(name = "predict.simulation.seed", defaultValue = "42")
+    long defaultSeed;
 
     @GET
     @Path("/all")
@@ -39,30 +65,42 @@ public class MatchResource {
         return service.getAllMatchesRepresentations();
     }
 
+    @GET
+    @Path("/live")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void live(@Context SseEventSink sink, @Context Sse sse) {
+        liveFeedService.subscribe(sink, sse);
+    }
+
+    @AdmissionControl("analytics")
     @GET
     @Path("/records")
-    @Produces(value = MediaType.APPLICATION_JSON)
-    public RecordsResponse getRecords() {
-        return service.getRecords();
+    @Produces(value = {MediaType.APPLICATION_JSON, BinaryJacksonProvider.APPLICATION_CBOR, BinaryJacksonProvider.APPLICATION_SMILE})
+    public RecordsResponse getRecords(@BeanParam FieldsFilter fields) {
+        return service.getRecords(fields.validate(RecordsResponse.RecordListDto.FIELDS));
     }
 
+    @AdmissionControl("analytics")
     @GET
     @Path("/ratings")
-    @Produces(value = MediaType.APPLICATION_JSON)
+    @Produces(value = {MediaType.APPLICATION_JSON, BinaryJacksonProvider.APPLICATION_CBOR, BinaryJacksonProvider.APPLICATION_SMILE})
     public RatingsResponse getRatings(@BeanParam BaseFilter filter,
-                                      @QueryParam("lastMatchesCount") Optional<Integer> limit) {
-        return service.getRatings(filter, limit);
+                                      @QueryParam("lastMatchesCount") Optional<Integer> limit,
+                                      @BeanParam FieldsFilter fields) {
+        return service.getRatings(filter, limit, fields.validate(RatingsResponse.RatingsListDto.FIELDS));
     }
 
+    @AdmissionControl("reports")
     @GET
     @Path("/ratings/progress")
-    @Produces(value = MediaType.APPLICATION_JSON)
+    @Produces(value = {MediaType.APPLICATION_JSON, BinaryJacksonProvider.APPLICATION_CBOR, BinaryJacksonProvider.APPLICATION_SMILE})
     public RatingProgressResponse getRatingsProgress(@BeanParam BaseFilter filter,
                                                      @QueryParam("type") Optional<MatchType> matchType,
                                                      @QueryParam("chunkSize") Optional<Integer> chunkSize) {
         return service.getProgressRating(matchType.orElse(MatchType.SHORT), filter, chunkSize.orElse(10));
     }
 
+    @QueryBudget(statements = 20)
     @POST
     @Consumes(value = MediaType.APPLICATION_JSON)
     @Produces(value = MediaType.APPLICATION_JSON)
@@ -70,8 +108,10 @@ public class MatchResource {
         return service.saveMatch(dto);
     }
 
+    @AdmissionControl("analytics")
+    @QueryBudget(statements = 30)
     @POST
-    @Produces(value = MediaType.APPLICATION_JSON)
+    @Produces(value = {MediaType.APPLICATION_JSON, BinaryJacksonProvider.APPLICATION_CBOR, BinaryJacksonProvider.APPLICATION_SMILE})
     @Path("/predict")
     public MatchPredictionResponse predict(@QueryParam("name") String name,
                                            @QueryParam("opponent") String opponent,
@@ -79,6 +119,34 @@ public class MatchResource {
         return service.predictMatchWinner(name, opponent, type.orElse(MatchType.SHORT));
     }
 
+    @AdmissionControl("analytics")
+    @POST
+    @Produces(value = {MediaType.APPLICATION_JSON, BinaryJacksonProvider.APPLICATION_CBOR, BinaryJacksonProvider.APPLICATION_SMILE})
+    @Path("/predict/simulate")
+    public MatchSimulationResponse simulate(@QueryParam("name") String name,
+                                            @QueryParam("opponent") String opponent,
+                                            @QueryParam("type") Optional<MatchType> type,
+                                            @QueryParam("simulations") Optional<Integer> simulations,
+                                            @QueryParam("seed") Optional<Long> seed) {
+        return service.simulateMatch(name, opponent, type.orElse(MatchType.SHORT),
+                Math.min(simulations.orElse(defaultSimulations), maxSimulations),
+                seed.orElse(defaultSeed));
+    }
+
+    @AdmissionControl("analytics")
+    @POST
+    @Produces(value = {MediaType.APPLICATION_JSON, BinaryJacksonProvider.APPLICATION_CBOR, BinaryJacksonProvider.APPLICATION_SMILE})
+    @Path("/predict/matrix")
+    public PredictionMatrixResponse predictMatrix(@QueryParam("name") List<String> names,
+                                                  @QueryParam("type") Optional<MatchType> type,
+                                                  @QueryParam("simulations") Optional<Integer> simulations,
+                                                  @QueryParam("seed") Optional<Long> seed) {
+        return service.getPredictionMatrix(names, type.orElse(MatchType.SHORT),
+                simulations.map(count -> Math.min(count, maxSimulations)),
+                seed.orElse(defaultSeed));
+    }
+
+    @AdmissionControl("import")
     @POST
     @Consumes(value = MediaType.APPLICATION_JSON)
     @Produces(value = MediaType.APPLICATION_JSON)
@@ -88,4 +156,36 @@ public class MatchResource {
                 .entity(importService.importSingleMatches(dto))
                 .build();
     }
+
+    @AdmissionControl("import")
+    @POST
+    @Consumes(value = MediaType.TEXT_PLAIN)
+    @Produces(value = MediaType.APPLICATION_JSON)
+    @Path("/import/stream")
+    public ImportReportResponse importMatchesStream(InputStream content,
+                                                    @QueryParam("type") Optional<MatchType> type,
+                                                    @QueryParam("tournament") String tournament,
+                                                    @QueryParam("stage") Optional<TournamentStage> stage,
+                                                    @HeaderParam("Idempotency-Key") String idempotencyKey) {
+        return importService.importMatches(content, ImportService.Format.LINES,
+                type.orElse(MatchType.SHORT), toTournamentInfo(tournament, stage), idempotencyKey);
+    }
+
+    @AdmissionControl("import")
+    @POST
+    @Consumes(value = "text/csv")
+    @Produces(value = MediaType.APPLICATION_JSON)
+    @Path("/import/stream")
+    public ImportReportResponse importMatchesCsvStream(InputStream content,
+                                                       @QueryParam("type") Optional<MatchType> type,
+                                                       @QueryParam("tournament") String tournament,
+                                                       @QueryParam("stage") Optional<TournamentStage> stage,
+                                                       @HeaderParam("Idempotency-Key") String idempotencyKey) {
+        return importService.importMatches(content, ImportService.Format.CSV,
+                type.orElse(MatchType.SHORT), toTournamentInfo(tournament, stage), idempotencyKey);
+    }
+
+    private CreateMatchDto.TournamentInfo toTournamentInfo(String tournament, Optional<TournamentStage> stage) {
+        return tournament == null ? null : new CreateMatchDto.TournamentInfo(tournament, stage);
+    }
 }
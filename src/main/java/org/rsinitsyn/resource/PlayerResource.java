@@ -1,6 +1,8 @@
 package org.rsinitsyn.resource;
 
+import io.micrometer.core.annotation.Timed;
 import java.util.List;
+import java.util.Map;
 import javax.inject.Inject;
 import javax.ws.rs.BeanParam;
 import javax.ws.rs.Consumes;
@@ -13,10 +15,14 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import org.apache.commons.lang3.ObjectUtils;
+import org.rsinitsyn.config.AdmissionControl;
+import org.rsinitsyn.config.BinaryJacksonProvider;
+import org.rsinitsyn.config.QueryBudget;
 import org.rsinitsyn.domain.MatchType;
 import org.rsinitsyn.domain.Player;
 import org.rsinitsyn.dto.request.BaseFilter;
 import org.rsinitsyn.dto.request.CreatePlayerDto;
+import org.rsinitsyn.dto.request.FieldsFilter;
 import org.rsinitsyn.dto.request.OpponentFilter;
 import org.rsinitsyn.dto.response.PlayerHistoryResponse;
 import org.rsinitsyn.dto.response.PlayerMatchesResponse;
@@ -24,6 +30,7 @@ import org.rsinitsyn.dto.response.PlayerProgressResponse;
 import org.rsinitsyn.dto.response.PlayerStatsResponse;
 import org.rsinitsyn.service.TennisService;
 
+@Timed(value = "tennis.endpoint", description = "Resource method invocation time", histogram = true)
 @Path("/player")
 public class PlayerResource {
 
@@ -37,6 +44,7 @@ public class PlayerResource {
         return service.findAllPlayers();
     }
 
+    @AdmissionControl("reports")
     @GET
     @Path("/stats/{name}/csv")
     @Produces(MediaType.APPLICATION_OCTET_STREAM)
@@ -47,6 +55,7 @@ public class PlayerResource {
                 .build();
     }
 
+    @AdmissionControl("reports")
     @GET
     @Path("/stats/{name}/xlsx")
     @Produces(MediaType.APPLICATION_OCTET_STREAM)
@@ -58,17 +67,32 @@ public class PlayerResource {
     }
 
 
+    @AdmissionControl("analytics")
+    @GET
+    @Path("/stats")
+    @Produces({MediaType.APPLICATION_JSON, BinaryJacksonProvider.APPLICATION_CBOR, BinaryJacksonProvider.APPLICATION_SMILE})
+    public Map<String, PlayerStatsResponse> getStatsByPlayerNames(@QueryParam("name") List<String> names,
+                                                                  @BeanParam OpponentFilter filters,
+                                                                  @BeanParam FieldsFilter fields) {
+        return service.getPlayersStats(names, filters, fields.validate(PlayerStatsResponse.PlayerStatsDto.FIELDS));
+    }
+
+    @AdmissionControl("analytics")
+    @QueryBudget(statements = 20)
     @GET
     @Path("/stats/{name}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, BinaryJacksonProvider.APPLICATION_CBOR, BinaryJacksonProvider.APPLICATION_SMILE})
     public PlayerStatsResponse getStatsByPlayerName(@PathParam("name") String name,
-                                                    @BeanParam OpponentFilter filters) {
-        return service.getPlayerStats(name, filters);
+                                                    @BeanParam OpponentFilter filters,
+                                                    @BeanParam FieldsFilter fields) {
+        return service.getPlayerStats(name, filters, fields.validate(PlayerStatsResponse.PlayerStatsDto.FIELDS));
     }
 
+    @AdmissionControl("analytics")
+    @QueryBudget(statements = 20)
     @GET
     @Path("/history/{name}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, BinaryJacksonProvider.APPLICATION_CBOR, BinaryJacksonProvider.APPLICATION_SMILE})
     public PlayerHistoryResponse getHistoryByPlayerName(@PathParam("name") String name,
                                                         @BeanParam BaseFilter filters,
                                                         @QueryParam("chunkSize") Integer chunkSize) {
@@ -76,6 +100,7 @@ public class PlayerResource {
         return service.getPlayerHistory(name, filters, chunkSize);
     }
 
+    @AdmissionControl("reports")
     @GET
     @Path("/history/{name}/xlsx")
     @Produces(MediaType.APPLICATION_OCTET_STREAM)
@@ -88,6 +113,7 @@ public class PlayerResource {
                 .build();
     }
 
+    @QueryBudget(statements = 20)
     @GET
     @Path("/matches/{name}")
     @Produces(MediaType.APPLICATION_JSON)
@@ -1,5 +1,6 @@
 package org.rsinitsyn.resource;
 
+import io.micrometer.core.annotation.Timed;
 import java.util.List;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
@@ -16,6 +17,7 @@ import org.rsinitsyn.domain.TournamentType;
 import org.rsinitsyn.dto.response.TournamentHistoryResponse;
 import org.rsinitsyn.service.TournamentService;
 
+@Timed(value = "tennis.endpoint", description = "Resource method invocation time", histogram = true)
 @Path("/tournament")
 public class TournamentResource {
 
@@ -8,18 +8,27 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.lang3.NotImplementedException;
+import org.rsinitsyn.config.StageMetrics;
 import org.rsinitsyn.dto.response.PlayerHistoryResponse;
 import org.rsinitsyn.dto.response.PlayerStatsResponse;
 import org.rsinitsyn.exception.TennisApiException;
 
 @ApplicationScoped
 public class CsvReportService implements ReportService {
+
+    @Inject
+    StageMetrics metrics;
+
     @Override
     public ByteArrayInputStream generateStatsReport(PlayerStatsResponse playerStats) {
+        return metrics.time("stats-csv", StageMetrics.RENDER, () -> renderStatsReport(playerStats));
+    }
 
+    private ByteArrayInputStream renderStatsReport(PlayerStatsResponse playerStats) {
         CSVFormat format = CSVFormat.DEFAULT.builder()
                 .setHeader(
                         "Тип матча", "Оппонент", "Игр", "Выиграно", "Проиграно", "Экстратаймов", "Процент побед", "Забито", "Пропущено",
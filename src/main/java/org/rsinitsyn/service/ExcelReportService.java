@@ -9,8 +9,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
+import org.apache.commons.lang3.ObjectUtils;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.Row;
@@ -26,6 +28,8 @@ import org.apache.poi.xddf.usermodel.chart.XDDFDataSourcesFactory;
 import org.apache.poi.xddf.usermodel.chart.XDDFLineChartData;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.rsinitsyn.config.AnalyticsEvent;
+import org.rsinitsyn.config.StageMetrics;
 import org.rsinitsyn.domain.MatchType;
 import org.rsinitsyn.dto.response.PlayerHistoryResponse.PlayerStatsHistoryListDto;
 import org.rsinitsyn.dto.response.PlayerStatsResponse;
@@ -33,9 +37,24 @@ import org.rsinitsyn.exception.TennisApiException;
 
 @ApplicationScoped
 public class ExcelReportService implements ReportService {
-    @SneakyThrows
+
+    @Inject
+    StageMetrics metrics;
+
     @Override
     public ByteArrayInputStream generateStatsReport(PlayerStatsResponse playerStats) {
+        return metrics.time("stats-xlsx", StageMetrics.RENDER, () -> renderStatsReport(playerStats));
+    }
+
+    @Override
+    public ByteArrayInputStream generateHistoryReport(PlayerStatsHistoryListDto shortHistory,
+                                                      PlayerStatsHistoryListDto longHistory) {
+        return metrics.time("history-xlsx", StageMetrics.RENDER, () -> renderHistoryReport(shortHistory, longHistory));
+    }
+
+    @SneakyThrows
+    private ByteArrayInputStream renderStatsReport(PlayerStatsResponse playerStats) {
+        var event = AnalyticsEvent.start();
         var workbook = new XSSFWorkbook();
         var allStatsSheet = createSheet(workbook, "Все матчи");
         createHeaderRow(allStatsSheet);
@@ -59,6 +78,8 @@ public class ExcelReportService implements ReportService {
 
         try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
             workbook.write(out);
+            event.finish("stats-xlsx", playerStats.getPlayerShortName(), playerStats.getFilters(),
+                    ObjectUtils.defaultIfNull(playerStats.getOverallStats().getMatches(), 0), out.size());
             return new ByteArrayInputStream(out.toByteArray());
         } catch (IOException e) {
             throw new TennisApiException("Fail to import data to xlsx", e, 500);
@@ -67,14 +88,16 @@ public class ExcelReportService implements ReportService {
         }
     }
 
-    @Override
-    public ByteArrayInputStream generateHistoryReport(PlayerStatsHistoryListDto shortHistory,
-                                                      PlayerStatsHistoryListDto longHistory) {
+    private ByteArrayInputStream renderHistoryReport(PlayerStatsHistoryListDto shortHistory,
+                                                     PlayerStatsHistoryListDto longHistory) {
+        var event = AnalyticsEvent.start();
         try (var workbook = new XSSFWorkbook();
              var out = new ByteArrayOutputStream()) {
             appendAllChartSheets(workbook, shortHistory, MatchType.SHORT);
             appendAllChartSheets(workbook, longHistory, MatchType.LONG);
             workbook.write(out);
+            event.finish("history-xlsx", null, null,
+                    shortHistory.getMatchesCount() + longHistory.getMatchesCount(), out.size());
             return new ByteArrayInputStream(out.toByteArray());
         } catch (IOException e) {
             throw new TennisApiException(e.getMessage());
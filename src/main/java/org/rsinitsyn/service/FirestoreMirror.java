@@ -0,0 +1,158 @@
+package org.rsinitsyn.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import lombok.SneakyThrows;
+import org.rsinitsyn.config.FirestoreMirrorConfig;
+import org.rsinitsyn.domain.Match;
+import org.rsinitsyn.domain.MatchResult;
+import org.rsinitsyn.domain.OutboxEvent;
+import org.rsinitsyn.domain.Player;
+import org.rsinitsyn.repo.PlayerCodec;
+
+/**
+ * Writes the Firestore documents of saved players and matches to the outbox. Called inside the saving
+ * transaction, so a document is mirrored if and only if its rows were committed; {@link OutboxRelay} publishes
+ * them. Players go to {@value #PLAYERS} in the {@link PlayerCodec} format, matches to {@value #MATCHES} keyed by
+ * match id, with {@code playerIds} for {@code array-contains} queries.
+ */
+@ApplicationScoped
+public class FirestoreMirror {
+
+    public static final String PLAYERS = "players";
+    public static final String MATCHES = "matches";
+
+    private static final PlayerCodec PLAYER_CODEC = new PlayerCodec();
+
+    @Inject
+    FirestoreMirrorConfig config;
+    @Inject
+    ObjectMapper objectMapper;
+
+    public void player(Player player) {
+        if (config.enabled()) {
+            write(PLAYERS, player.id, PlayerDocument.of(player));
+        }
+    }
+
+    public void match(Match match, MatchResult playerResult, MatchResult opponentResult) {
+        if (config.enabled()) {
+            write(MATCHES, match.id, MatchDocument.of(match, playerResult, opponentResult));
+        }
+    }
+
+    /**
+     * Reads the payload of an outbox row back.
+     */
+    @SneakyThrows
+    MirroredDocument read(OutboxEvent event) {
+        Class<? extends MirroredDocument> type = switch (event.collection) {
+            case PLAYERS -> PlayerDocument.class;
+            case MATCHES -> MatchDocument.class;
+            default -> throw new IllegalArgumentException("Unknown outbox collection " + event.collection);
+        };
+        return objectMapper.readValue(event.payload, type);
+    }
+
+    @SneakyThrows
+    private void write(String collection, Long id, MirroredDocument document) {
+        var event = new OutboxEvent();
+        event.collection = collection;
+        event.documentId = String.valueOf(id);
+        event.payload = objectMapper.writeValueAsString(document);
+        event.createdAt = Instant.now();
+        event.persist();
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return instant == null ? null : Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+    }
+
+    public sealed interface MirroredDocument permits PlayerDocument, MatchDocument {
+        /**
+         * Players whose documents must be published in outbox order.
+         */
+        List<Long> playerIds();
+
+        Map<String, Object> toFirestore();
+    }
+
+    public record PlayerDocument(long id, String name, String firstName, String lastName, int age,
+                          Instant registrationDate) implements MirroredDocument {
+
+        static PlayerDocument of(Player player) {
+            return new PlayerDocument(player.id, player.name, player.firstName, player.lastName, player.age,
+                    player.registrationDate);
+        }
+
+        @Override
+        public List<Long> playerIds() {
+            return List.of(id);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> toFirestore() {
+            var player = new Player(name, firstName, lastName, age, registrationDate, null);
+            player.id = id;
+            return (Map<String, Object>) PLAYER_CODEC.encode(player);
+        }
+    }
+
+    public record MatchDocument(long id, String type, String stage, String tournament, Instant date,
+                         List<Side> sides) implements MirroredDocument {
+
+        static MatchDocument of(Match match, MatchResult playerResult, MatchResult opponentResult) {
+            return new MatchDocument(match.id,
+                    match.type.name(),
+                    match.stage == null ? null : match.stage.name(),
+                    match.tournament == null ? null : match.tournament.name,
+                    match.date,
+                    List.of(Side.of(playerResult), Side.of(opponentResult)));
+        }
+
+        @Override
+        public List<Long> playerIds() {
+            return sides.stream().map(Side::playerId).toList();
+        }
+
+        @Override
+        public Map<String, Object> toFirestore() {
+            Map<String, Object> document = new HashMap<>(8);
+            document.put("type", type);
+            document.put("stage", stage);
+            document.put("tournament", tournament);
+            document.put("date", toTimestamp(date));
+            document.put("playerIds", playerIds());
+            document.put("players", sides.stream().map(Side::player).toList());
+            document.put("results", sides.stream().map(Side::toFirestore).toList());
+            return document;
+        }
+    }
+
+    public record Side(long playerId, String player, int scored, int missed, boolean winner, boolean extraRound) {
+
+        static Side of(MatchResult result) {
+            return new Side(result.getPlayer().id, result.getPlayer().name, result.getScored(), result.getMissed(),
+                    result.isWinner(), result.isExtraRound());
+        }
+
+        Map<String, Object> toFirestore() {
+            Map<String, Object> side = new LinkedHashMap<>(8);
+            side.put("playerId", playerId);
+            side.put("player", player);
+            side.put("scored", scored);
+            side.put("missed", missed);
+            side.put("winner", winner);
+            side.put("extraRound", extraRound);
+            return side;
+        }
+    }
+}
@@ -1,13 +1,46 @@
 package org.rsinitsyn.service;
 
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.rsinitsyn.domain.Match;
+import org.rsinitsyn.domain.MatchType;
+import org.rsinitsyn.domain.Player;
+import org.rsinitsyn.domain.Tournament;
 import org.rsinitsyn.dto.request.CreateMatchDto;
 import org.rsinitsyn.dto.request.ImportSingleMatchesDto;
+import org.rsinitsyn.dto.response.ImportReportResponse;
 import org.rsinitsyn.exception.TennisApiException;
 
 @ApplicationScoped
@@ -16,27 +49,275 @@ public class ImportService {
     @Inject
     TennisService tennisService;
 
+    @ConfigProperty(name = "import.chunk-size", defaultValue = "500")
+    int chunkSize;
+
+    /**
+     * The date of the payload is the date of its first line, every next line is a millisecond later, so the
+     * matches keep the order of the content.
+     */
     @Transactional
     public int importSingleMatches(ImportSingleMatchesDto dto) {
-        List<Match> saved = new ArrayList<>();
+        List<ImportLine> lines = new ArrayList<>();
+        AtomicLong lineNumber = new AtomicLong(0);
+        Map<String, Integer> occurrences = new HashMap<>();
 
         dto.getContent().lines().forEach(line -> {
             var tokens = line.trim().replaceAll("\\s+$", "").split(" ");
-            if (tokens.length != 4) {
-                throw new TennisApiException("Imported content is invalid. Token lenght: " + tokens.length, 400);
-            }
-            String playerName = tokens[0];
-            int playerScore = Integer.parseInt(tokens[1]);
-            int opponentScore = Integer.parseInt(tokens[2]);
-            String opponentName = tokens[3];
-
-            var createMatchDto = new CreateMatchDto(dto.getMatchType(),
-                    new CreateMatchDto.PlayerResultDto(playerName, playerScore),
-                    new CreateMatchDto.PlayerResultDto(opponentName, opponentScore),
-                    dto.getTournamentInfo());
-            saved.add(tennisService.saveMatch(createMatchDto));
+            long number = lineNumber.incrementAndGet();
+            var createMatchDto = toMatchDto(List.of(tokens), dto.getMatchType(), dto.getTournamentInfo(),
+                    dto.getDate() == null ? null : dto.getDate().plusMillis(number - 1));
+            lines.add(new ImportLine(number, line, createMatchDto,
+                    fingerprint(createMatchDto, dto.getIdempotencyKey(), occurrences)));
         });
 
-        return saved.size();
+        return saveNotImported(lines);
+    }
+
+    /**
+     * Reads matches from the stream line by line and persists them in chunks of {@code import.chunk-size},
+     * each chunk in its own transaction. Invalid lines are reported back instead of failing the whole import.
+     * A failure to read the content stops the import: the lines read so far are kept and the report is marked
+     * truncated.
+     * Matches that carry a date or come with an idempotency key are fingerprinted by their content and how many equal
+     * lines came before them, so a repeated import skips them, even reordered, while equal lines of one import are all
+     * saved.
+     */
+    public ImportReportResponse importMatches(InputStream content,
+                                              Format format,
+                                              MatchType matchType,
+                                              CreateMatchDto.TournamentInfo tournamentInfo,
+                                              String idempotencyKey) {
+        validateTournamentInfo(tournamentInfo);
+
+        var report = new ImportReportResponse();
+        var session = new ImportSession(report, matchType, tournamentInfo, idempotencyKey);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(content, StandardCharsets.UTF_8))) {
+            if (format == Format.CSV) {
+                readCsv(reader, session);
+            } else {
+                readLines(reader, session);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            Log.warnf("Import stopped after %d lines: %s", report.getTotal(), ExceptionUtils.getRootCauseMessage(e));
+            report.truncate("Fail to read imported content: " + ExceptionUtils.getRootCauseMessage(e));
+        } finally {
+            flush(session);
+        }
+        Log.infof("Import finished: %d accepted, %d duplicates, %d rejected%s",
+                report.getAccepted(), report.getDuplicates(), report.getRejected(),
+                report.isTruncated() ? ", truncated" : "");
+        return report;
+    }
+
+    private void readLines(BufferedReader reader, ImportSession session) throws IOException {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (StringUtils.isBlank(line)) {
+                continue;
+            }
+            List<String> tokens = List.of(line.trim().split("\\s+"));
+            handleLine(lineNumber, line, tokens, session);
+        }
+    }
+
+    private void readCsv(Reader reader, ImportSession session) throws IOException {
+        CSVFormat format = CSVFormat.DEFAULT.builder()
+                .setIgnoreEmptyLines(true)
+                .setTrim(true)
+                .build();
+        try (CSVParser parser = format.parse(reader)) {
+            for (CSVRecord record : parser) {
+                List<String> tokens = record.toList();
+                if (record.getRecordNumber() == 1 && isHeader(tokens)) {
+                    continue;
+                }
+                handleLine(record.getRecordNumber(), String.join(",", tokens), tokens, session);
+            }
+        }
+    }
+
+    private boolean isHeader(List<String> tokens) {
+        return tokens.size() > 1 && !NumberUtils.isDigits(tokens.get(1));
+    }
+
+    private void handleLine(long lineNumber, String line, List<String> tokens, ImportSession session) {
+        try {
+            CreateMatchDto dto = toMatchDto(tokens, session.matchType, session.tournamentInfo, null);
+            tennisService.validateMatchDto(dto);
+            session.checkPlayerExists(dto.player().name());
+            session.checkPlayerExists(dto.opponentPlayer().name());
+            session.chunk.add(new ImportLine(lineNumber, line, dto,
+                    fingerprint(dto, session.idempotencyKey, session.occurrences)));
+        } catch (TennisApiException e) {
+            session.report.reject(lineNumber, line, e.getMessage());
+        }
+        if (session.chunk.size() >= chunkSize) {
+            flush(session);
+        }
+    }
+
+    private void flush(ImportSession session) {
+        if (session.chunk.isEmpty()) {
+            return;
+        }
+        try {
+            int saved = QuarkusTransaction.requiringNew().call(() -> saveNotImported(session.chunk));
+            session.report.accept(saved);
+            session.report.duplicate(session.chunk.size() - saved);
+        } catch (RuntimeException e) {
+            Log.warnf("Fail to persist imported chunk of %d matches, saving them one by one: %s",
+                    session.chunk.size(), ExceptionUtils.getRootCauseMessage(e));
+            session.chunk.forEach(line -> saveLine(session, line));
+        }
+        session.chunk.clear();
+    }
+
+    /**
+     * Saves a line of a failed chunk in its own transaction, so only the lines that fail themselves are rejected.
+     */
+    private void saveLine(ImportSession session, ImportLine line) {
+        try {
+            int saved = QuarkusTransaction.requiringNew().call(() -> saveNotImported(List.of(line)));
+            session.report.accept(saved);
+            session.report.duplicate(1 - saved);
+        } catch (RuntimeException e) {
+            session.report.reject(line.number(), line.content(), e instanceof TennisApiException
+                    ? e.getMessage()
+                    : "Match was not saved: " + ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    /**
+     * Skips the lines saved by an earlier import.
+     */
+    private int saveNotImported(List<ImportLine> lines) {
+        Set<String> imported = new HashSet<>(Match.findExistingFingerprints(lines.stream()
+                .map(ImportLine::fingerprint)
+                .filter(Objects::nonNull)
+                .toList()));
+        int saved = 0;
+        for (ImportLine line : lines) {
+            if (line.fingerprint() != null && imported.contains(line.fingerprint())) {
+                continue;
+            }
+            tennisService.saveMatch(line.dto(), line.fingerprint());
+            saved++;
+        }
+        return saved;
+    }
+
+    private CreateMatchDto toMatchDto(List<String> tokens,
+                                      MatchType matchType,
+                                      CreateMatchDto.TournamentInfo tournamentInfo,
+                                      Instant date) {
+        if (tokens.size() != 4 && tokens.size() != 5) {
+            throw new TennisApiException("Imported content is invalid. Token length: " + tokens.size(), 400);
+        }
+        String playerName = tokens.get(0);
+        String opponentName = tokens.get(3);
+        if (!NumberUtils.isDigits(tokens.get(1)) || !NumberUtils.isDigits(tokens.get(2))) {
+            throw new TennisApiException("Imported content is invalid. Score is not a number", 400);
+        }
+        int playerScore = Integer.parseInt(tokens.get(1));
+        int opponentScore = Integer.parseInt(tokens.get(2));
+
+        return new CreateMatchDto(matchType,
+                new CreateMatchDto.PlayerResultDto(playerName, playerScore),
+                new CreateMatchDto.PlayerResultDto(opponentName, opponentScore),
+                tournamentInfo,
+                tokens.size() == 5 ? parseDate(tokens.get(4)) : date);
+    }
+
+    private Instant parseDate(String value) {
+        try {
+            return value.contains("T")
+                    ? Instant.parse(value)
+                    : LocalDate.parse(value).atStartOfDay(ZoneId.systemDefault()).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new TennisApiException("Imported content is invalid. Date is not ISO-8601: " + value, e, 400);
+        }
+    }
+
+    /**
+     * Content hash of the match and its line, independent of which player is written first. Only dated matches or
+     * matches imported under an idempotency key get one: undated lines without a key can legitimately repeat. The
+     * occurrence of the content within the import tells apart equal lines of it, e.g. rematches on a day given without
+     * time, and keeps the fingerprint independent of where the line is.
+     */
+    private String fingerprint(CreateMatchDto dto, String idempotencyKey, Map<String, Integer> occurrences) {
+        if (dto.date() == null && idempotencyKey == null) {
+            return null;
+        }
+        var first = dto.player();
+        var second = dto.opponentPlayer();
+        if (first.name().compareTo(second.name()) > 0) {
+            first = dto.opponentPlayer();
+            second = dto.player();
+        }
+        String source = String.join("|",
+                first.name(), String.valueOf(first.score()),
+                second.name(), String.valueOf(second.score()),
+                dto.type().name(),
+                dto.tournamentInfo() == null ? "" : dto.tournamentInfo().name(),
+                dto.tournamentInfo() == null ? "" : dto.tournamentInfo().stage().map(Enum::name).orElse(""),
+                dto.date() == null ? "" : dto.date().toString(),
+                Objects.toString(idempotencyKey, ""));
+        int occurrence = occurrences.merge(source, 1, Integer::sum);
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest((source + "|" + occurrence).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new TennisApiException("Fail to fingerprint match", e);
+        }
+    }
+
+    private void validateTournamentInfo(CreateMatchDto.TournamentInfo tournamentInfo) {
+        if (tournamentInfo == null) {
+            return;
+        }
+        if (Tournament.findByName(tournamentInfo.name()).isPresent() && tournamentInfo.stage().isEmpty()) {
+            throw new TennisApiException("Stage not set", 400);
+        }
+    }
+
+    public enum Format {
+        LINES,
+        CSV
+    }
+
+    private record ImportLine(long number, String content, CreateMatchDto dto, String fingerprint) {
+    }
+
+    private static class ImportSession {
+        private final ImportReportResponse report;
+        private final MatchType matchType;
+        private final CreateMatchDto.TournamentInfo tournamentInfo;
+        private final String idempotencyKey;
+        private final List<ImportLine> chunk = new ArrayList<>();
+        private final Set<String> knownPlayers = new HashSet<>();
+        private final Map<String, Integer> occurrences = new HashMap<>();
+
+        private ImportSession(ImportReportResponse report,
+                              MatchType matchType,
+                              CreateMatchDto.TournamentInfo tournamentInfo,
+                              String idempotencyKey) {
+            this.report = report;
+            this.matchType = matchType;
+            this.tournamentInfo = tournamentInfo;
+            this.idempotencyKey = idempotencyKey;
+        }
+
+        private void checkPlayerExists(String name) {
+            if (knownPlayers.contains(name)) {
+                return;
+            }
+            if (Player.count("name", name) == 0) {
+                throw new TennisApiException("Player 'name' not found:" + name, 404);
+            }
+            knownPlayers.add(name);
+        }
     }
 }
@@ -0,0 +1,179 @@
+package org.rsinitsyn.service;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseBroadcaster;
+import javax.ws.rs.sse.SseEventSink;
+import org.rsinitsyn.dto.request.FieldsFilter;
+import org.rsinitsyn.dto.response.PlayerMatchesResponse.PlayerMatchDetailsDto;
+import org.rsinitsyn.dto.response.RecordsResponse;
+import org.rsinitsyn.dto.response.RecordsResponse.RecordListDto;
+import org.rsinitsyn.dto.response.RecordsResponse.RecordListDto.RecordDto;
+import org.rsinitsyn.utils.ConverterUtils;
+
+/**
+ * Pushes every committed match to SSE subscribers, followed by the ratings of the players who played it and the
+ * record entries that changed; bursts of matches (e.g. an import) share one ratings and one records event. The
+ * deltas are computed once per burst, not once per subscriber, and not at all while nobody is listening.
+ * <p>
+ * The observer copies what the feed needs from the match before the transaction's entities are left behind; the
+ * deltas are computed by the single {@code live-feed} thread.
+ */
+@ApplicationScoped
+public class LiveFeedService {
+
+    private static final Map<String, Function<RecordListDto, RecordDto>> RECORD_FIELDS = recordFields();
+
+    @Inject
+    TennisService tennisService;
+
+    private final AtomicInteger subscribers = new AtomicInteger(0);
+    private final AtomicBoolean flushPending = new AtomicBoolean(false);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "live-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Sse sse;
+    private SseBroadcaster broadcaster;
+
+    private RecordsResponse lastRecords;
+    private final Set<String> playedSinceFlush = new LinkedHashSet<>();
+
+    public synchronized void subscribe(SseEventSink sink, Sse sse) {
+        if (broadcaster == null) {
+            this.sse = sse;
+            this.broadcaster = sse.newBroadcaster();
+            this.broadcaster.onClose(closed -> subscribers.decrementAndGet());
+            this.broadcaster.onError((closed, e) -> Log.warn("Live feed subscriber failed: " + e.getMessage()));
+        }
+        broadcaster.register(sink);
+        if (subscribers.incrementAndGet() == 1) {
+            execute("load", this::load);
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        executor.shutdownNow();
+    }
+
+    void onMatchSaved(@Observes(during = TransactionPhase.AFTER_SUCCESS) MatchSavedEvent event) {
+        if (subscribers.get() <= 0) {
+            return;
+        }
+        LiveMatch match = LiveMatch.of(event);
+        execute("publish match " + match.id() + " to", () -> publish(match));
+    }
+
+    private void execute(String action, Runnable task) {
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                Log.error("Fail to " + action + " live feed", e);
+            }
+        });
+    }
+
+    private void load() {
+        if (lastRecords == null) {
+            lastRecords = tennisService.getRecords(FieldsFilter.all());
+        }
+    }
+
+    private void publish(LiveMatch match) {
+        broadcast("match", match.details());
+        playedSinceFlush.add(match.player());
+        playedSinceFlush.add(match.opponent());
+
+        // Runs after the matches already queued, so a burst shares a single recalculation
+        if (flushPending.compareAndSet(false, true)) {
+            execute("flush", this::flush);
+        }
+    }
+
+    private void flush() {
+        flushPending.set(false);
+        broadcast("ratings", tennisService.getPlayersRatings(new ArrayList<>(playedSinceFlush)));
+        playedSinceFlush.clear();
+
+        RecordsResponse records = tennisService.getRecords(FieldsFilter.all());
+        Map<String, Map<String, RecordDto>> changedRecords = getChangedRecords(lastRecords, records);
+        lastRecords = records;
+        if (!changedRecords.isEmpty()) {
+            broadcast("records", changedRecords);
+        }
+    }
+
+    private synchronized void broadcast(String name, Object data) {
+        broadcaster.broadcast(sse.newEventBuilder()
+                .name(name)
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(data.getClass(), data)
+                .build());
+    }
+
+    private Map<String, Map<String, RecordDto>> getChangedRecords(RecordsResponse before, RecordsResponse after) {
+        Map<String, Map<String, RecordDto>> result = new LinkedHashMap<>();
+        after.getRecords().forEach((type, afterList) -> {
+            RecordListDto beforeList = before == null ? null : before.getRecords().get(type);
+            Map<String, RecordDto> changed = new LinkedHashMap<>();
+            RECORD_FIELDS.forEach((field, getter) -> {
+                RecordDto afterRecord = getter.apply(afterList);
+                if (beforeList == null || !Objects.equals(getter.apply(beforeList), afterRecord)) {
+                    changed.put(field, afterRecord);
+                }
+            });
+            if (!changed.isEmpty()) {
+                result.put(type, changed);
+            }
+        });
+        return result;
+    }
+
+    private static Map<String, Function<RecordListDto, RecordDto>> recordFields() {
+        Map<String, Function<RecordListDto, RecordDto>> fields = new LinkedHashMap<>();
+        fields.put("matches", RecordListDto::getMatches);
+        fields.put("wins", RecordListDto::getWins);
+        fields.put("loses", RecordListDto::getLoses);
+        fields.put("winRate", RecordListDto::getWinRate);
+        fields.put("winStreak", RecordListDto::getWinStreak);
+        fields.put("loseStreak", RecordListDto::getLoseStreak);
+        fields.put("pointsScored", RecordListDto::getPointsScored);
+        fields.put("avgPointsScored", RecordListDto::getAvgPointsScored);
+        fields.put("pointsMissed", RecordListDto::getPointsMissed);
+        fields.put("avgPointsMissed", RecordListDto::getAvgPointsMissed);
+        fields.put("pointsRate", RecordListDto::getPointsRate);
+        return fields;
+    }
+
+    /**
+     * A saved match copied out of its entities.
+     */
+    private record LiveMatch(long id, PlayerMatchDetailsDto details, String player, String opponent) {
+
+        static LiveMatch of(MatchSavedEvent event) {
+            return new LiveMatch(event.match().id,
+                    ConverterUtils.getMatchDetailsDto(event.playerResult()),
+                    event.playerResult().getPlayer().name,
+                    event.opponentResult().getPlayer().name);
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package org.rsinitsyn.service;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.jpa.QueryHints;
+import org.rsinitsyn.domain.MatchResult;
+import org.rsinitsyn.domain.MatchType;
+import org.rsinitsyn.domain.TournamentStage;
+import org.rsinitsyn.repo.MatchResultRepo;
+
+/**
+ * Compact copy of every match result (ids, scores, type, stage, tournament, date) in a memory-mapped file, so
+ * analytics can scan plain numbers instead of the eager {@code Player}/{@code Match} graph. On startup the
+ * existing file is mapped as is and only match results with a match id above its high-water mark are read from
+ * PostgreSQL; saved matches are appended as they commit. The file is rebuilt from scratch when its layout or
+ * enum constants changed, or when the table no longer has its high-water mark (e.g. a restored backup).
+ * <p>
+ * Startup does not count the whole table: only matches above the verified id, the high-water mark the previous
+ * start began with, are counted and compared with the rows above it, so concurrent writers that committed lower
+ * ids around the last start are found. On a mismatch just these rows are read again.
+ * <p>
+ * Layout: a {@value #HEADER_SIZE} byte header (magic, version, row count, high-water match id, schema hash,
+ * verified match id) followed by fixed {@value #ROW_SIZE} byte rows, two per match like {@code match_result}.
+ */
+@ApplicationScoped
+public class MatchFactSnapshot {
+
+    static final int HEADER_SIZE = 64;
+    static final int ROW_SIZE = 48;
+
+    private static final int MAGIC = 0x544d4631;
+    private static final int VERSION = 2;
+    private static final int MIN_CAPACITY = 1 << 16;
+    private static final int FETCH_SIZE = 10_000;
+    private static final int COUNT_OFFSET = 8;
+    private static final int HIGH_WATER_MARK_OFFSET = 16;
+    private static final int SCHEMA_HASH_OFFSET = 24;
+    private static final int VERIFIED_OFFSET = 32;
+    private static final MatchType[] TYPES = MatchType.values();
+    private static final TournamentStage[] STAGES = TournamentStage.values();
+
+    @Inject
+    MatchResultRepo matchResultRepo;
+
+    @ConfigProperty(name = "match-facts.snapshot.enabled", defaultValue = "true")
+    boolean enabled;
+    @ConfigProperty(name = "match-facts.snapshot.path", defaultValue = "snapshot/match-facts.bin")
+    Path path;
+
+    private FileChannel channel;
+    private volatile MappedByteBuffer buffer;
+    private volatile int count;
+    private volatile boolean ready;
+    private long highWaterMark;
+    private long verified;
+
+    @ActivateRequestContext
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            open();
+            if (findLastMatchId() < highWaterMark) {
+                Log.warnf("Match fact snapshot is ahead of the database at match %d, rebuilding", highWaterMark);
+                reset();
+            }
+            int mapped = count;
+            long startedAt = highWaterMark;
+            catchUp();
+
+            long expected = 2 * countMatchesAfter(verified);
+            long actual = countRowsAfter(verified);
+            if (expected != actual) {
+                Log.warnf("Match fact snapshot has %d rows above match %d, match_result has %d, reading them again",
+                        actual, verified, expected);
+                long from = verified;
+                retain(row -> matchId(row) <= from);
+                commitHeader(from);
+                mapped = Math.min(mapped, count);
+                catchUp();
+            }
+            verified = startedAt;
+            buffer.putLong(VERIFIED_OFFSET, verified);
+            ready = true;
+            Log.infof("Match fact snapshot ready in %d ms: %d rows mapped, %d read from the database",
+                    (System.nanoTime() - start) / 1_000_000, mapped, count - mapped);
+        } catch (IOException | RuntimeException e) {
+            Log.error("Fail to load match fact snapshot " + path + ", analytics will read the database", e);
+        }
+    }
+
+    void onMatchSaved(@Observes(during = TransactionPhase.AFTER_SUCCESS) MatchSavedEvent event) {
+        if (!ready) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                append(event.playerResult());
+                append(event.opponentResult());
+                commitHeader(Math.max(highWaterMark, event.match().id));
+            }
+        } catch (IOException | RuntimeException e) {
+            ready = false;
+            Log.error("Fail to append match " + event.match().id + " to the fact snapshot,"
+                    + " it is rebuilt on restart", e);
+        }
+    }
+
+    synchronized void onStop(@Observes ShutdownEvent event) throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Rows committed so far; rows appended later are not visible through the returned view.
+     */
+    public View view() {
+        int size = count;
+        return new View(buffer, size);
+    }
+
+    private synchronized void open() throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        map(Math.max(size, HEADER_SIZE + (long) MIN_CAPACITY * ROW_SIZE));
+        if (size < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(SCHEMA_HASH_OFFSET) != schemaHash()
+                || HEADER_SIZE + buffer.getLong(COUNT_OFFSET) * ROW_SIZE > size) {
+            reset();
+            return;
+        }
+        count = (int) buffer.getLong(COUNT_OFFSET);
+        highWaterMark = buffer.getLong(HIGH_WATER_MARK_OFFSET);
+        verified = buffer.getLong(VERIFIED_OFFSET);
+    }
+
+    private synchronized void reset() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(SCHEMA_HASH_OFFSET, schemaHash());
+        count = 0;
+        commitHeader(0);
+        verified = 0;
+        buffer.putLong(VERIFIED_OFFSET, 0);
+    }
+
+    @Transactional
+    long findLastMatchId() {
+        Long id = matchResultRepo.getEntityManager()
+                .createQuery("select max(m.id) from Match m", Long.class)
+                .getSingleResult();
+        return id == null ? 0 : id;
+    }
+
+    /**
+     * Walks the primary key index from {@code matchId} on, so it reads only the matches saved since.
+     */
+    @Transactional
+    long countMatchesAfter(long matchId) {
+        return matchResultRepo.getEntityManager()
+                .createQuery("select count(m) from Match m where m.id > ?1", Long.class)
+                .setParameter(1, matchId)
+                .getSingleResult();
+    }
+
+    private long countRowsAfter(long matchId) {
+        long rows = 0;
+        for (int row = 0; row < count; row++) {
+            if (matchId(row) > matchId) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Keeps the rows passing the filter in their order, before the snapshot is ready.
+     */
+    private synchronized void retain(IntPredicate filter) {
+        byte[] row = new byte[ROW_SIZE];
+        int kept = 0;
+        for (int index = 0; index < count; index++) {
+            if (filter.test(index)) {
+                if (kept != index) {
+                    buffer.get(offset(index), row);
+                    buffer.put(offset(kept), row);
+                }
+                kept++;
+            }
+        }
+        count = kept;
+        commitHeader(highWaterMark);
+    }
+
+    private long matchId(int row) {
+        return buffer.getLong(offset(row));
+    }
+
+    /**
+     * Reads the rows above the high-water mark; the transaction lets the driver fetch them with a cursor.
+     */
+    @Transactional
+    void catchUp() throws IOException {
+        try (Stream<Object[]> rows = matchResultRepo.getEntityManager()
+                .createQuery("select m.id, mr.player.id, mr.opponent.id, t.id, m.date, mr.scored, mr.missed,"
+                        + " m.type, m.stage, mr.winner, mr.extraRound"
+                        + " from MatchResult mr join mr.match m left join m.tournament t"
+                        + " where m.id > ?1 order by m.id", Object[].class)
+                .setParameter(1, highWaterMark)
+                .setHint(QueryHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .getResultStream()) {
+            synchronized (this) {
+                long lastMatchId = highWaterMark;
+                Iterator<Object[]> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    Object[] row = iterator.next();
+                    ensureCapacity(count + 1);
+                    lastMatchId = (Long) row[0];
+                    write(count, lastMatchId, (Long) row[1], (Long) row[2], (Long) row[3], (Instant) row[4],
+                            (Integer) row[5], (Integer) row[6], (MatchType) row[7], (TournamentStage) row[8],
+                            (Boolean) row[9], (Boolean) row[10]);
+                    count++;
+                }
+                commitHeader(lastMatchId);
+            }
+        }
+    }
+
+    private void append(MatchResult mr) throws IOException {
+        ensureCapacity(count + 1);
+        var match = mr.getMatch();
+        write(count, match.id, mr.getPlayer().id, mr.getOpponent().id,
+                match.tournament == null ? null : match.tournament.id, match.date,
+                mr.getScored(), mr.getMissed(), match.type, match.stage, mr.isWinner(), mr.isExtraRound());
+        count++;
+    }
+
+    private void write(int row, long matchId, long playerId, long opponentId, Long tournamentId, Instant date,
+                       int scored, int missed, MatchType type, TournamentStage stage,
+                       boolean winner, boolean extraRound) {
+        int offset = offset(row);
+        buffer.putLong(offset, matchId);
+        buffer.putLong(offset + 8, playerId);
+        buffer.putLong(offset + 16, opponentId);
+        buffer.putLong(offset + 24, tournamentId == null ? 0 : tournamentId);
+        buffer.putLong(offset + 32, date == null ? Long.MIN_VALUE : date.toEpochMilli());
+        buffer.putShort(offset + 40, (short) scored);
+        buffer.putShort(offset + 42, (short) missed);
+        buffer.put(offset + 44, (byte) (type == null ? -1 : type.ordinal()));
+        buffer.put(offset + 45, (byte) (stage == null ? -1 : stage.ordinal()));
+        buffer.put(offset + 46, (byte) ((winner ? 1 : 0) | (extraRound ? 2 : 0)));
+    }
+
+    /**
+     * Publishes the rows written so far: the row count is stored after the rows themselves.
+     */
+    private void commitHeader(long matchId) {
+        highWaterMark = matchId;
+        buffer.putLong(HIGH_WATER_MARK_OFFSET, matchId);
+        buffer.putLong(COUNT_OFFSET, count);
+    }
+
+    private void ensureCapacity(int rows) throws IOException {
+        long required = HEADER_SIZE + (long) rows * ROW_SIZE;
+        if (required > buffer.capacity()) {
+            long size = Math.max(required, HEADER_SIZE + (buffer.capacity() - HEADER_SIZE) * 2L);
+            if (size > Integer.MAX_VALUE) {
+                size = Integer.MAX_VALUE - (Integer.MAX_VALUE - HEADER_SIZE) % ROW_SIZE;
+                if (required > size) {
+                    throw new IOException("Match fact snapshot is limited to "
+                            + (size - HEADER_SIZE) / ROW_SIZE + " rows");
+                }
+            }
+            map(size);
+        }
+    }
+
+    private void map(long size) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private static int offset(int row) {
+        return HEADER_SIZE + row * ROW_SIZE;
+    }
+
+    private static int schemaHash() {
+        return 31 * Arrays.hashCode(Arrays.stream(TYPES).map(Enum::name).toArray())
+                + Arrays.hashCode(Arrays.stream(STAGES).map(Enum::name).toArray());
+    }
+
+    /**
+     * Read-only access to the first {@link #size()} rows of the snapshot by row index.
+     */
+    public static final class View {
+        private final MappedByteBuffer buffer;
+        private final int size;
+
+        private View(MappedByteBuffer buffer, int size) {
+            this.buffer = buffer;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long matchId(int row) {
+            return buffer.getLong(offset(row));
+        }
+
+        public long playerId(int row) {
+            return buffer.getLong(offset(row) + 8);
+        }
+
+        public long opponentId(int row) {
+            return buffer.getLong(offset(row) + 16);
+        }
+
+        /**
+         * Tournament id, {@code 0} for friendly matches.
+         */
+        public long tournamentId(int row) {
+            return buffer.getLong(offset(row) + 24);
+        }
+
+        public long epochMillis(int row) {
+            return buffer.getLong(offset(row) + 32);
+        }
+
+        public int scored(int row) {
+            return buffer.getShort(offset(row) + 40);
+        }
+
+        public int missed(int row) {
+            return buffer.getShort(offset(row) + 42);
+        }
+
+        public MatchType type(int row) {
+            byte ordinal = buffer.get(offset(row) + 44);
+            return ordinal < 0 ? null : TYPES[ordinal];
+        }
+
+        public TournamentStage stage(int row) {
+            byte ordinal = buffer.get(offset(row) + 45);
+            return ordinal < 0 ? null : STAGES[ordinal];
+        }
+
+        public boolean winner(int row) {
+            return (buffer.get(offset(row) + 46) & 1) != 0;
+        }
+
+        public boolean extraRound(int row) {
+            return (buffer.get(offset(row) + 46) & 2) != 0;
+        }
+
+    }
+}
@@ -0,0 +1,7 @@
+package org.rsinitsyn.service;
+
+import org.rsinitsyn.domain.Match;
+import org.rsinitsyn.domain.MatchResult;
+
+public record MatchSavedEvent(Match match, MatchResult playerResult, MatchResult opponentResult) {
+}
@@ -0,0 +1,289 @@
+package org.rsinitsyn.service;
+
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+import org.apache.commons.lang3.StringUtils;
+import org.rsinitsyn.config.FirestoreMirrorConfig;
+import org.rsinitsyn.domain.OutboxEvent;
+
+/**
+ * Publishes outbox rows to Firestore from a single background thread. Each pass runs in one transaction holding
+ * a PostgreSQL advisory lock, so only one application instance relays at a time: it reads the oldest
+ * {@code outbox.batch-size} rows that are due, commits them as one {@link WriteBatch} and deletes them. Delivery is
+ * at-least-once: rows whose deletion did not commit are published again, which is harmless as documents are
+ * written whole under fixed ids.
+ * <p>
+ * When the batch fails, the rows are published one by one in outbox order. A failed row is retried after a delay
+ * doubling from {@code outbox.poll-interval-millis} up to {@code outbox.max-backoff-millis}, and the later rows
+ * of its players are held back until then, so per-player order is kept while other players progress: passes
+ * only read rows that are due, and skip the rows of players with an older row waiting. After
+ * {@code outbox.max-attempts} failures a row is parked and no longer holds its players back. Passes that deliver
+ * nothing back off exponentially up to {@code outbox.max-backoff-millis}.
+ * <p>
+ * Metrics: {@code tennis.outbox.pending} rows, {@code tennis.outbox.lag} age of the oldest pending row in
+ * seconds, {@code tennis.outbox.parked} rows, {@code tennis.outbox.delivery} time from outbox write to publishing,
+ * and the {@code tennis.outbox.published} / {@code tennis.outbox.failed} counters.
+ */
+@ApplicationScoped
+public class OutboxRelay {
+
+    private static final long LOCK_KEY = 0x6f7574626f78L;
+
+    @Inject
+    FirestoreMirrorConfig config;
+    @Inject
+    FirestoreMirror mirror;
+    @Inject
+    Instance<Firestore> firestore;
+    @Inject
+    MeterRegistry registry;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+    private final AtomicLong parked = new AtomicLong();
+    private ScheduledExecutorService executor;
+    private Timer delivery;
+    private Counter published;
+    private Counter failed;
+    private long delayMillis;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!config.enabled()) {
+            return;
+        }
+        Gauge.builder("tennis.outbox.pending", pending, AtomicLong::get)
+                .description("Outbox rows not yet published to Firestore")
+                .register(registry);
+        Gauge.builder("tennis.outbox.lag", oldestPendingMillis,
+                        oldest -> oldest.get() == 0 ? 0 : (System.currentTimeMillis() - oldest.get()) / 1000d)
+                .description("Age of the oldest unpublished outbox row")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("tennis.outbox.parked", parked, AtomicLong::get)
+                .description("Outbox rows parked after too many failed attempts")
+                .register(registry);
+        delivery = Timer.builder("tennis.outbox.delivery")
+                .description("Time from writing an outbox row to publishing it")
+                .publishPercentileHistogram()
+                .register(registry);
+        published = Counter.builder("tennis.outbox.published").register(registry);
+        failed = Counter.builder("tennis.outbox.failed").register(registry);
+
+        delayMillis = config.pollIntervalMillis();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.schedule(this::poll, delayMillis, TimeUnit.MILLISECONDS);
+        Log.infof("Outbox relay to Firestore started, batch size %d", config.batchSize());
+    }
+
+    void onStop(@Observes ShutdownEvent event) throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(config.publishTimeoutMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void poll() {
+        long next;
+        try {
+            Pass pass = relay();
+            if (pass.read() > 0 && pass.delivered() == 0) {
+                delayMillis = Math.min(delayMillis * 2, config.maxBackoffMillis());
+                next = delayMillis;
+            } else {
+                delayMillis = config.pollIntervalMillis();
+                next = pass.delivered() == config.batchSize() ? 0 : delayMillis;
+            }
+        } catch (RuntimeException e) {
+            Log.error("Outbox relay pass failed", e);
+            delayMillis = Math.min(delayMillis * 2, config.maxBackoffMillis());
+            next = delayMillis;
+        }
+        if (!executor.isShutdown()) {
+            executor.schedule(this::poll, next, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * One relay pass; rows whose publishing failed stay in the outbox with their attempt count and error.
+     */
+    @Transactional
+    Pass relay() {
+        Boolean locked = (Boolean) OutboxEvent.getEntityManager()
+                .createNativeQuery("select pg_try_advisory_xact_lock(?1)")
+                .setParameter(1, LOCK_KEY)
+                .getSingleResult();
+        if (!Boolean.TRUE.equals(locked)) {
+            return new Pass(0, 0);
+        }
+        Object[] backlog = OutboxEvent.getEntityManager()
+                .createQuery("select count(e), min(e.createdAt) from OutboxEvent e where e.attempts < ?1",
+                        Object[].class)
+                .setParameter(1, config.maxAttempts())
+                .getSingleResult();
+        pending.set((Long) backlog[0]);
+        oldestPendingMillis.set(backlog[1] == null ? 0 : ((Instant) backlog[1]).toEpochMilli());
+        parked.set(OutboxEvent.count("attempts >= ?1", config.maxAttempts()));
+
+        Instant now = Instant.now();
+        List<OutboxEvent> events = OutboxEvent.<OutboxEvent>find(
+                        "attempts < ?1 and (retryAt is null or retryAt <= ?2) order by id", config.maxAttempts(), now)
+                .page(0, config.batchSize())
+                .list();
+        if (events.isEmpty()) {
+            return new Pass(0, 0);
+        }
+        List<OutboxEvent> delivered = publish(events, findWaiting(now), now);
+        if (!delivered.isEmpty()) {
+            OutboxEvent.delete("id in ?1", delivered.stream().map(e -> e.id).toList());
+            delivered.forEach(e -> delivery.record(Duration.between(e.createdAt, now)));
+            published.increment(delivered.size());
+            pending.addAndGet(-delivered.size());
+        }
+        return new Pass(events.size(), delivered.size());
+    }
+
+    /**
+     * Oldest row waiting for a retry per player: later rows of these players are not published before it.
+     */
+    private Map<Long, OutboxEvent> findWaiting(Instant now) {
+        Map<Long, OutboxEvent> waiting = new HashMap<>();
+        try (Stream<OutboxEvent> events = OutboxEvent.stream("attempts < ?1 and retryAt > ?2 order by id",
+                config.maxAttempts(), now)) {
+            events.forEach(event -> playerIds(event).forEach(playerId -> waiting.putIfAbsent(playerId, event)));
+        }
+        return waiting;
+    }
+
+    private List<OutboxEvent> publish(List<OutboxEvent> events, Map<Long, OutboxEvent> waiting, Instant now) {
+        List<OutboxEvent> due = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            Optional<OutboxEvent> blocking = blocking(event, playerIds(event), waiting);
+            if (blocking.isPresent()) {
+                event.retryAt = blocking.get().retryAt;
+            } else {
+                due.add(event);
+            }
+        }
+        if (due.isEmpty()) {
+            return due;
+        }
+        try {
+            WriteBatch batch = firestore.get().batch();
+            due.forEach(event -> batch.set(document(event), mirror.read(event).toFirestore()));
+            await(batch);
+            return due;
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            Log.warnf("Fail to publish %d outbox rows as a batch, retrying one by one: %s", due.size(),
+                    e.getMessage());
+        }
+
+        List<OutboxEvent> delivered = new ArrayList<>();
+        Map<Long, OutboxEvent> failedBefore = new HashMap<>();
+        for (OutboxEvent event : due) {
+            List<Long> playerIds = playerIds(event);
+            Optional<OutboxEvent> blocking = blocking(event, playerIds, failedBefore);
+            if (blocking.isPresent()) {
+                event.retryAt = blocking.get().retryAt;
+                continue;
+            }
+            try {
+                WriteBatch batch = firestore.get().batch();
+                batch.set(document(event), mirror.read(event).toFirestore());
+                await(batch);
+                delivered.add(event);
+            } catch (TimeoutException e) {
+                // Firestore does not answer, the remaining rows wait for the next pass
+                failed(event, e, now);
+                break;
+            } catch (ExecutionException | RuntimeException e) {
+                playerIds.forEach(playerId -> failedBefore.putIfAbsent(playerId, event));
+                failed(event, e, now);
+            }
+        }
+        return delivered;
+    }
+
+    private static Optional<OutboxEvent> blocking(OutboxEvent event, List<Long> playerIds,
+                                                  Map<Long, OutboxEvent> waiting) {
+        return playerIds.stream()
+                .map(waiting::get)
+                .filter(other -> other != null && other.id < event.id)
+                .findFirst();
+    }
+
+    /**
+     * Players of the row; none when its payload cannot be read, publishing it then fails on its own.
+     */
+    private List<Long> playerIds(OutboxEvent event) {
+        try {
+            return mirror.read(event).playerIds();
+        } catch (RuntimeException e) {
+            return List.of();
+        }
+    }
+
+    private void failed(OutboxEvent event, Exception e, Instant now) {
+        event.attempts++;
+        event.lastError = StringUtils.abbreviate(String.valueOf(e.getMessage()), 1000);
+        failed.increment();
+        if (event.attempts >= config.maxAttempts()) {
+            event.retryAt = null;
+            parked.incrementAndGet();
+            pending.decrementAndGet();
+            Log.errorf("Parked outbox row %d (%s/%s) after %d attempts: %s", event.id, event.collection,
+                    event.documentId, event.attempts, event.lastError);
+            return;
+        }
+        long backoffMillis = config.pollIntervalMillis() << Math.min(event.attempts - 1, 20);
+        event.retryAt = now.plusMillis(Math.min(backoffMillis, config.maxBackoffMillis()));
+        Log.errorf("Fail to publish outbox row %d (%s/%s), attempt %d: %s", event.id, event.collection,
+                event.documentId, event.attempts, event.lastError);
+    }
+
+    private DocumentReference document(OutboxEvent event) {
+        return firestore.get().collection(event.collection).document(event.documentId);
+    }
+
+    private void await(WriteBatch batch) throws ExecutionException, TimeoutException {
+        try {
+            batch.commit().get(config.publishTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted publishing the outbox", e);
+        }
+    }
+
+    record Pass(int read, int delivered) {
+    }
+}
@@ -3,28 +3,48 @@ package org.rsinitsyn.service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.rsinitsyn.config.AnalyticsEvent;
+import org.rsinitsyn.config.StageMetrics;
 import org.rsinitsyn.domain.MatchResult;
 import org.rsinitsyn.domain.MatchType;
+import org.rsinitsyn.domain.TournamentStage;
 import org.rsinitsyn.dto.response.MatchPredictionResponse;
-import org.rsinitsyn.dto.response.PlayerStatsResponse;
+import org.rsinitsyn.dto.response.MatchSimulationResponse;
+import org.rsinitsyn.dto.response.PredictionMatrixResponse;
+import org.rsinitsyn.utils.LazyPlayerStats;
 
-import static org.rsinitsyn.utils.ConverterUtils.getPlayerStatisticDto;
+import static org.rsinitsyn.config.StageMetrics.AGGREGATE;
+import static org.rsinitsyn.config.StageMetrics.SIMULATE;
 
 @ApplicationScoped
 public class PredictService {
 
     private static final int SCALE_DIGIT = 4;
+    private static final int SIMULATION_CHUNKS = 64;
+    private static final double PRIOR_RALLIES = 50;
+    private static final double Z_95 = 1.96;
+
+    @Inject
+    StageMetrics metrics;
 
     public List<MatchPredictionResponse.MatchPredictDto> getMatchPredictDtoList(List<MatchResult> commonMatches,
                                                                                 List<MatchResult> playerMatches,
                                                                                 List<MatchResult> opponentMatches,
                                                                                 MatchType matchType) {
+        var event = AnalyticsEvent.start();
         double versusWeight = 2;
         double generalWeight = 0.5;
 
@@ -38,11 +58,7 @@ public class PredictService {
         appendDifferentPredictsToResult(allOutcomesAndPredictions, playerMatches, generalWeight, matchType, true);
         appendDifferentPredictsToResult(allOutcomesAndPredictions, opponentMatches, generalWeight, matchType, false);
 
-        allOutcomesAndPredictions.forEach((matchPredictDto, doubles) -> {
-            System.out.println(matchPredictDto.score() + " " + doubles);
-        });
-
-        return allOutcomesAndPredictions.entrySet()
+        var predicts = allOutcomesAndPredictions.entrySet()
                 .stream()
                 .map(e -> new MatchPredictionResponse.MatchPredictDto(
                         e.getKey().getScored(),
@@ -51,6 +67,9 @@ public class PredictService {
                 ))
                 .sorted(MatchPredictionResponse.MatchPredictDto::compareTo)
                 .toList();
+        event.finish("predict", playerMatches.isEmpty() ? null : playerMatches.get(0).getPlayer().name, matchType,
+                commonMatches.size() + playerMatches.size() + opponentMatches.size(), predicts.size());
+        return predicts;
     }
 
     private double calculateAveragePredict(List<Double> values) {
@@ -110,7 +129,7 @@ public class PredictService {
                 .map(Map.Entry::getValue)
                 .orElse(0L);
 
-        PlayerStatsResponse.PlayerStatsDto stats = getPlayerStatisticDto(matches);
+        LazyPlayerStats stats = new LazyPlayerStats(matches);
         boolean outcomeWin = scored > missed;
         BigDecimal wrWeight = getWeightOfWinrate(stats.getWinRate(), outcomeWin, type.getPoints());
 
@@ -134,4 +153,347 @@ public class PredictService {
         }
         return wrWeight.divide(BigDecimal.valueOf(outcomesCount), SCALE_DIGIT, RoundingMode.HALF_UP);
     }
+
+    /**
+     * Estimates the probability that the player wins a single rally against the opponent: head-to-head rallies
+     * shrunk towards the log5 combination of both players' overall rally win rates.
+     */
+    public double getRallyWinProbability(List<MatchResult> commonMatches,
+                                         List<MatchResult> playerMatches,
+                                         List<MatchResult> opponentMatches) {
+        return getRallyWinProbability(
+                commonMatches.stream().mapToInt(MatchResult::getScored).sum(),
+                commonMatches.stream().mapToInt(MatchResult::getMissed).sum(),
+                getRallyWinRate(playerMatches),
+                getRallyWinRate(opponentMatches));
+    }
+
+    public double getRallyWinProbability(int scored, int missed, double playerRate, double opponentRate) {
+        double log5Denominator = playerRate * (1 - opponentRate) + opponentRate * (1 - playerRate);
+        double prior = log5Denominator == 0 ? 0.5 : playerRate * (1 - opponentRate) / log5Denominator;
+        return (scored + PRIOR_RALLIES * prior) / (scored + missed + PRIOR_RALLIES);
+    }
+
+    /**
+     * Probability to be the first to reach {@code points} rallies: sum over the opponent's final score {@code k}
+     * of {@code C(points - 1 + k, k) * p^points * q^k}.
+     */
+    public double getGameWinProbability(double rallyWinProbability, int points) {
+        double q = 1 - rallyWinProbability;
+        double term = Math.pow(rallyWinProbability, points);
+        double result = term;
+        for (int k = 1; k < points; k++) {
+            term *= q * (points - 1 + k) / k;
+            result += term;
+        }
+        return result;
+    }
+
+    /**
+     * Builds the win probability of every entrant against every other one from a single list of their matches.
+     * Rally win rates and head-to-head rallies are aggregated once, and only one half of the matrix is
+     * calculated: the model is symmetric, so the other half is its complement.
+     * With {@code simulations} set, a single elimination cup is also played out, see {@link #simulateCup}.
+     */
+    public PredictionMatrixResponse getPredictionMatrix(List<String> players,
+                                                        MatchType matchType,
+                                                        List<MatchResult> matches,
+                                                        Integer simulations,
+                                                        long seed) {
+        return getPredictionMatrix(players, matchType, () -> getRallyTotals(players, matchType, matches),
+                simulations, seed);
+    }
+
+    /**
+     * Same as {@link #getPredictionMatrix(List, MatchType, List, Integer, long)} for rallies already summed up
+     * per entrant, e.g. from {@link MatchFactSnapshot}.
+     */
+    public PredictionMatrixResponse getPredictionMatrix(List<String> players,
+                                                        MatchType matchType,
+                                                        Supplier<RallyTotals> totals,
+                                                        Integer simulations,
+                                                        long seed) {
+        double[][] winProbabilities = metrics.time("matrix", AGGREGATE,
+                () -> getWinProbabilities(matchType, totals.get()));
+
+        Map<String, Map<String, Double>> matrix = new LinkedHashMap<>();
+        for (int i = 0; i < players.size(); i++) {
+            Map<String, Double> row = new LinkedHashMap<>();
+            for (int j = 0; j < players.size(); j++) {
+                if (i != j) {
+                    row.put(players.get(j), round(winProbabilities[i][j] * 100));
+                }
+            }
+            matrix.put(players.get(i), row);
+        }
+
+        return new PredictionMatrixResponse(
+                matchType,
+                players,
+                matrix,
+                simulations == null
+                        ? null
+                        : metrics.time("matrix", SIMULATE,
+                                () -> simulateCup(players, winProbabilities, simulations, seed)));
+    }
+
+    private RallyTotals getRallyTotals(List<String> players, MatchType matchType, List<MatchResult> matches) {
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < players.size(); i++) {
+            indexes.put(players.get(i), i);
+        }
+        var totals = new RallyTotals(players.size());
+        for (MatchResult mr : matches) {
+            Integer player = indexes.get(mr.getPlayer().name);
+            if (player == null || mr.getType() != matchType) {
+                continue;
+            }
+            totals.add(player, indexes.getOrDefault(mr.getOpponent().name, -1), mr.getScored(), mr.getMissed());
+        }
+        return totals;
+    }
+
+    private double[][] getWinProbabilities(MatchType matchType, RallyTotals totals) {
+        int size = totals.playerScored.length;
+        double[] rates = new double[size];
+        for (int i = 0; i < size; i++) {
+            long total = totals.playerScored[i] + totals.playerMissed[i];
+            rates[i] = total == 0 ? 0.5 : (double) totals.playerScored[i] / total;
+        }
+        double[][] winProbabilities = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                double rally = getRallyWinProbability(totals.versusScored[i][j], totals.versusScored[j][i],
+                        rates[i], rates[j]);
+                winProbabilities[i][j] = getGameWinProbability(rally, matchType.getPoints());
+                winProbabilities[j][i] = 1 - winProbabilities[i][j];
+            }
+        }
+        return winProbabilities;
+    }
+
+    /**
+     * Plays a single elimination bracket {@code simulations} times. Entrants are seeded in the given order, the
+     * bracket is padded to a power of two with byes going to the top seeds. Stages report the probability of
+     * reaching the final as {@link TournamentStage#GRAND_FINAL} and of reaching the round before it as
+     * {@link TournamentStage#PLAY_OFF_UPPER_BRACKET}; earlier rounds are only in the per-round list.
+     */
+    public PredictionMatrixResponse.CupSimulationDto simulateCup(List<String> players,
+                                                                 double[][] winProbabilities,
+                                                                 int simulations,
+                                                                 long seed) {
+        int[] bracket = getSeededBracket(players.size());
+        int rounds = Integer.numberOfTrailingZeros(bracket.length);
+        long[] reached = simulateInChunks(simulations, seed, players.size() * (rounds + 1),
+                (random, count) -> playCups(random, count, bracket, rounds, winProbabilities));
+
+        Map<String, PredictionMatrixResponse.CupPlayerDto> result = new LinkedHashMap<>();
+        for (int player = 0; player < players.size(); player++) {
+            List<Double> roundProbabilities = new ArrayList<>();
+            Map<TournamentStage, Double> stages = new LinkedHashMap<>();
+            for (int round = 0; round < rounds; round++) {
+                double probability = round(reached[player * (rounds + 1) + round] * 100d / simulations);
+                roundProbabilities.add(probability);
+                if (round == rounds - 2) {
+                    stages.put(TournamentStage.PLAY_OFF_UPPER_BRACKET, probability);
+                } else if (round == rounds - 1) {
+                    stages.put(TournamentStage.GRAND_FINAL, probability);
+                }
+            }
+            result.put(players.get(player), new PredictionMatrixResponse.CupPlayerDto(
+                    roundProbabilities,
+                    stages,
+                    getProbabilityDto(reached[player * (rounds + 1) + rounds], simulations)));
+        }
+        return new PredictionMatrixResponse.CupSimulationDto(simulations, seed, result);
+    }
+
+    /**
+     * Standard seeding: seed {@code s} meets seed {@code size - 1 - s} in the first round. Slots of missing
+     * entrants are {@code -1}.
+     */
+    private static int[] getSeededBracket(int players) {
+        int[] seeds = {0};
+        while (seeds.length < players) {
+            int[] next = new int[seeds.length * 2];
+            for (int i = 0; i < seeds.length; i++) {
+                next[i * 2] = seeds[i];
+                next[i * 2 + 1] = next.length - 1 - seeds[i];
+            }
+            seeds = next;
+        }
+        return Arrays.stream(seeds).map(seed -> seed < players ? seed : -1).toArray();
+    }
+
+    /**
+     * Index {@code player * (rounds + 1) + round} counts how many times the player reached the round,
+     * {@code round == rounds} counts cups won.
+     */
+    private static long[] playCups(SplittableRandom random,
+                                   int cups,
+                                   int[] bracket,
+                                   int rounds,
+                                   double[][] winProbabilities) {
+        long[] reached = new long[winProbabilities.length * (rounds + 1)];
+        int[] alive = new int[bracket.length];
+        for (int cup = 0; cup < cups; cup++) {
+            System.arraycopy(bracket, 0, alive, 0, bracket.length);
+            for (int round = 0, size = bracket.length; round < rounds; round++, size /= 2) {
+                for (int i = 0; i < size; i += 2) {
+                    int left = alive[i];
+                    int right = alive[i + 1];
+                    if (left >= 0) {
+                        reached[left * (rounds + 1) + round]++;
+                    }
+                    if (right >= 0) {
+                        reached[right * (rounds + 1) + round]++;
+                    }
+                    alive[i / 2] = left < 0 || right < 0
+                            ? Math.max(left, right)
+                            : random.nextDouble() < winProbabilities[left][right] ? left : right;
+                }
+            }
+            reached[alive[0] * (rounds + 1) + rounds]++;
+        }
+        return reached;
+    }
+
+    /**
+     * Plays {@code simulations} games rally by rally. The work is split into a fixed number of chunks, each with
+     * its own {@link SplittableRandom} split from {@code seed} up front, so the result depends only on the seed
+     * and not on how the chunks are scheduled.
+     */
+    public MatchSimulationResponse simulateMatch(String playerName,
+                                                 String opponentName,
+                                                 MatchType matchType,
+                                                 double rallyWinProbability,
+                                                 int simulations,
+                                                 long seed) {
+        int points = matchType.getPoints();
+        long[] outcomes = metrics.time("simulate", SIMULATE, () -> simulateInChunks(simulations, seed, points * 2,
+                (random, count) -> simulateGames(random, count, rallyWinProbability, points)));
+
+        long wins = Arrays.stream(outcomes, 0, points).sum();
+        List<MatchSimulationResponse.ScoreProbabilityDto> scores = IntStream.range(0, outcomes.length)
+                .filter(i -> outcomes[i] > 0)
+                .mapToObj(i -> {
+                    var interval = getProbabilityDto(outcomes[i], simulations);
+                    String score = i < points
+                            ? points + " - " + i
+                            : (i - points) + " - " + points;
+                    return new MatchSimulationResponse.ScoreProbabilityDto(
+                            score, interval.value(), interval.lower(), interval.upper());
+                })
+                .sorted(Comparator.comparing(MatchSimulationResponse.ScoreProbabilityDto::probability,
+                        Comparator.reverseOrder()))
+                .toList();
+
+        return new MatchSimulationResponse(
+                playerName,
+                opponentName,
+                matchType,
+                simulations,
+                seed,
+                round(rallyWinProbability * 100),
+                getProbabilityDto(wins, simulations),
+                scores
+        );
+    }
+
+    /**
+     * Splits the simulations into a fixed number of chunks, each with its own {@link SplittableRandom} split from
+     * {@code seed} up front, and sums the counters the chunks return.
+     */
+    private static long[] simulateInChunks(int simulations, long seed, int counters, ChunkSimulation simulation) {
+        int chunks = Math.min(SIMULATION_CHUNKS, simulations);
+        var root = new SplittableRandom(seed);
+        var randoms = new SplittableRandom[chunks];
+        for (int i = 0; i < chunks; i++) {
+            randoms[i] = root.split();
+        }
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(i -> simulation.simulate(randoms[i],
+                        simulations / chunks + (i < simulations % chunks ? 1 : 0)))
+                .reduce(new long[counters], PredictService::sumOutcomes);
+    }
+
+    /**
+     * Index {@code i < points} counts wins {@code points - i}, index {@code points + i} counts loses {@code i - points}.
+     */
+    private static long[] simulateGames(SplittableRandom random, int games, double rallyWinProbability, int points) {
+        long[] outcomes = new long[points * 2];
+        for (int game = 0; game < games; game++) {
+            int scored = 0;
+            int missed = 0;
+            while (scored < points && missed < points) {
+                if (random.nextDouble() < rallyWinProbability) {
+                    scored++;
+                } else {
+                    missed++;
+                }
+            }
+            outcomes[scored == points ? missed : points + scored]++;
+        }
+        return outcomes;
+    }
+
+    private static long[] sumOutcomes(long[] left, long[] right) {
+        long[] result = new long[left.length];
+        for (int i = 0; i < left.length; i++) {
+            result[i] = left[i] + right[i];
+        }
+        return result;
+    }
+
+    private MatchSimulationResponse.ProbabilityDto getProbabilityDto(long happened, int total) {
+        double p = (double) happened / total;
+        double margin = Z_95 * Math.sqrt(p * (1 - p) / total);
+        return new MatchSimulationResponse.ProbabilityDto(
+                round(p * 100),
+                round(Math.max(0, p - margin) * 100),
+                round(Math.min(1, p + margin) * 100));
+    }
+
+    public double getRallyWinRate(List<MatchResult> matches) {
+        int scored = matches.stream().mapToInt(MatchResult::getScored).sum();
+        int missed = matches.stream().mapToInt(MatchResult::getMissed).sum();
+        return scored + missed == 0 ? 0.5 : (double) scored / (scored + missed);
+    }
+
+    private double round(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    /**
+     * Rallies scored and missed by each entrant of a prediction matrix, overall and against each other entrant.
+     */
+    public static final class RallyTotals {
+        private final long[] playerScored;
+        private final long[] playerMissed;
+        private final int[][] versusScored;
+
+        public RallyTotals(int size) {
+            this.playerScored = new long[size];
+            this.playerMissed = new long[size];
+            this.versusScored = new int[size][size];
+        }
+
+        /**
+         * Adds a match of entrant {@code player}; {@code opponent} is the opponent's entrant index or a negative
+         * value when the opponent is not an entrant.
+         */
+        public void add(int player, int opponent, int scored, int missed) {
+            playerScored[player] += scored;
+            playerMissed[player] += missed;
+            if (opponent >= 0) {
+                versusScored[player][opponent] += scored;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkSimulation {
+        long[] simulate(SplittableRandom random, int count);
+    }
 }
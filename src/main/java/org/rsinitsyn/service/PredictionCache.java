@@ -0,0 +1,69 @@
+package org.rsinitsyn.service;
+
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import org.rsinitsyn.domain.MatchType;
+import org.rsinitsyn.dto.response.MatchPredictionResponse;
+
+/**
+ * Keeps match predictions per pair of players and match type. Every key carries the data version of both players,
+ * which is bumped once a match of the player is committed, so a prediction computed from stale data can never be
+ * served again. Keys are ordered pairs: the model is not symmetric, so a prediction is never derived from the one
+ * of the reversed pair.
+ */
+@ApplicationScoped
+public class PredictionCache {
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    @Inject
+    @CacheName("predictions-cache")
+    Cache cache;
+
+    public MatchPredictionResponse get(String playerName,
+                                       String opponentName,
+                                       MatchType matchType,
+                                       Supplier<MatchPredictionResponse> prediction) {
+        var key = new PredictionKey(playerName, opponentName, matchType,
+                getVersion(playerName), getVersion(opponentName));
+        return cache.<PredictionKey, MatchPredictionResponse>get(key, k -> prediction.get())
+                .await().indefinitely();
+    }
+
+    void onMatchSaved(@Observes(during = TransactionPhase.AFTER_SUCCESS) MatchSavedEvent event) {
+        String playerName = event.playerResult().getPlayer().name;
+        String opponentName = event.opponentResult().getPlayer().name;
+        versions.computeIfAbsent(playerName, name -> new AtomicLong()).incrementAndGet();
+        versions.computeIfAbsent(opponentName, name -> new AtomicLong()).incrementAndGet();
+
+        cache.as(CaffeineCache.class).keySet().stream()
+                .map(PredictionKey.class::cast)
+                .filter(key -> key.involves(playerName) || key.involves(opponentName))
+                .forEach(key -> cache.invalidate(key).await().indefinitely());
+    }
+
+    private long getVersion(String playerName) {
+        AtomicLong version = versions.get(playerName);
+        return version == null ? 0 : version.get();
+    }
+
+    private record PredictionKey(String player,
+                                 String opponent,
+                                 MatchType matchType,
+                                 long playerVersion,
+                                 long opponentVersion) {
+
+        private boolean involves(String playerName) {
+            return player.equals(playerName) || opponent.equals(playerName);
+        }
+    }
+}
@@ -10,24 +10,25 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
 import lombok.SneakyThrows;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.MutablePair;
+import org.rsinitsyn.config.AnalyticsEvent;
+import org.rsinitsyn.config.StageMetrics;
 import org.rsinitsyn.domain.Match;
 import org.rsinitsyn.domain.MatchResult;
 import org.rsinitsyn.domain.MatchType;
@@ -37,8 +38,11 @@ import org.rsinitsyn.domain.TournamentStage;
 import org.rsinitsyn.dto.request.BaseFilter;
 import org.rsinitsyn.dto.request.CreateMatchDto;
 import org.rsinitsyn.dto.request.CreatePlayerDto;
+import org.rsinitsyn.dto.request.FieldsFilter;
 import org.rsinitsyn.dto.request.OpponentFilter;
 import org.rsinitsyn.dto.response.MatchPredictionResponse;
+import org.rsinitsyn.dto.response.MatchSimulationResponse;
+import org.rsinitsyn.dto.response.PredictionMatrixResponse;
 import org.rsinitsyn.dto.response.PlayerHistoryResponse;
 import org.rsinitsyn.dto.response.PlayerMatchesResponse;
 import org.rsinitsyn.dto.response.PlayerProgressResponse;
@@ -51,12 +55,18 @@ import org.rsinitsyn.dto.response.RecordsResponse.PlayerValueDto;
 import org.rsinitsyn.exception.TennisApiException;
 import org.rsinitsyn.repo.MatchResultRepo;
 import org.rsinitsyn.utils.ConverterUtils;
+import org.rsinitsyn.utils.LazyPlayerStats;
 import org.rsinitsyn.utils.StatsUtils;
 
+import static org.rsinitsyn.config.StageMetrics.AGGREGATE;
+import static org.rsinitsyn.config.StageMetrics.FILTER;
+import static org.rsinitsyn.config.StageMetrics.LOAD;
+import static org.rsinitsyn.config.StageMetrics.SORT;
 import static org.rsinitsyn.domain.MatchType.LONG;
 import static org.rsinitsyn.domain.MatchType.SHORT;
 import static org.rsinitsyn.dto.response.MatchPredictionResponse.MatchPredictDto;
 import static org.rsinitsyn.utils.ConverterUtils.getPlayerStatisticDto;
+import static org.rsinitsyn.utils.ConverterUtils.includeIf;
 
 @ApplicationScoped
 @Transactional
@@ -66,22 +76,37 @@ public class TennisService {
     CsvReportService csvReportService;
     ExcelReportService excelReportService;
     PredictService predictService;
+    PredictionCache predictionCache;
+    MatchFactSnapshot matchFactSnapshot;
+    FirestoreMirror firestoreMirror;
+    StageMetrics metrics;
+    Event<MatchSavedEvent> matchSavedEvent;
 
     @Inject
     public TennisService(MatchResultRepo matchResultRepo,
                          CsvReportService csvReportService,
                          ExcelReportService excelReportService,
-                         PredictService predictService) {
+                         PredictService predictService,
+                         PredictionCache predictionCache,
+                         MatchFactSnapshot matchFactSnapshot,
+                         FirestoreMirror firestoreMirror,
+                         StageMetrics metrics,
+                         Event<MatchSavedEvent> matchSavedEvent) {
         this.matchResultRepo = matchResultRepo;
         this.csvReportService = csvReportService;
         this.excelReportService = excelReportService;
         this.predictService = predictService;
+        this.predictionCache = predictionCache;
+        this.matchFactSnapshot = matchFactSnapshot;
+        this.firestoreMirror = firestoreMirror;
+        this.metrics = metrics;
+        this.matchSavedEvent = matchSavedEvent;
     }
 
     public List<String> getAllMatchesRepresentations() {
         List<PlayerMatchesResponse.PlayerMatchDetailsDto> matches = matchResultRepo.findAllDistinct()
                 .stream()
-                .sorted(Comparator.comparing(mr -> mr.getMatch().date))
+                .sorted(Comparator.comparing(mr -> mr.getDate()))
                 .map(ConverterUtils::getMatchDetailsDto)
                 .toList();
         return matches.stream().map(PlayerMatchesResponse.PlayerMatchDetailsDto::getRepresentation).collect(Collectors.toList());
@@ -89,10 +114,16 @@ public class TennisService {
 
     @CacheInvalidateAll(cacheName = "records-cache")
     public Match saveMatch(CreateMatchDto dto) {
+        return saveMatch(dto, null);
+    }
+
+    @CacheInvalidateAll(cacheName = "records-cache")
+    public Match saveMatch(CreateMatchDto dto, String fingerprint) {
         validateMatchDto(dto);
         Match match = new Match();
         match.type = dto.type();
-        match.date = Instant.now();
+        match.date = Optional.ofNullable(dto.date()).orElseGet(Instant::now);
+        match.fingerprint = fingerprint;
         if (dto.tournamentInfo() != null) {
             Tournament.findByName(dto.tournamentInfo().name())
                     .ifPresentOrElse(tournament -> {
@@ -101,17 +132,28 @@ public class TennisService {
                     }, () -> {
                         match.stage = TournamentStage.FRIENDLY;
                     });
+        } else {
+            match.stage = TournamentStage.FRIENDLY;
         }
+        match.player = Player.findByName(dto.player().name());
+        match.opponent = Player.findByName(dto.opponentPlayer().name());
+        match.playerScored = dto.player().score();
+        match.opponentScored = dto.opponentPlayer().score();
         match.persist();
 
-        saveMatchPlayer(match, dto.player(), dto.opponentPlayer());
-        saveMatchPlayer(match, dto.opponentPlayer(), dto.player());
+        MatchResult playerResult = MatchResult.ofPlayer(match);
+        MatchResult opponentResult = MatchResult.ofOpponent(match);
+        firestoreMirror.match(match, playerResult, opponentResult);
 
+        matchSavedEvent.fire(new MatchSavedEvent(match, playerResult, opponentResult));
         return match;
     }
 
     public void validateMatchDto(CreateMatchDto dto) {
         int points = dto.type().getPoints();
+        if (dto.player().name().equals(dto.opponentPlayer().name())) {
+            throw new TennisApiException("Player and opponent must differ", 400);
+        }
         if (dto.player().score() < 0 || dto.opponentPlayer().score() < 0) {
             throw new TennisApiException("Score < 0", 400);
         }
@@ -126,23 +168,6 @@ public class TennisService {
         }
     }
 
-    public MatchResult saveMatchPlayer(Match match,
-                                       CreateMatchDto.PlayerResultDto player,
-                                       CreateMatchDto.PlayerResultDto opponent) {
-        MatchResult matchResult = new MatchResult();
-        matchResult.setMatch(match);
-        matchResult.setScored(player.score());
-        matchResult.setMissed(opponent.score());
-        matchResult.setExtraRound(Math.abs(player.score() - opponent.score()) == 1);
-        matchResult.setWinner(player.score() > opponent.score());
-        matchResult.setPlayer(Player.findByName(player.name()));
-        matchResult.setOpponent(Player.findByName(opponent.name()));
-
-        matchResultRepo.persist(matchResult);
-        return matchResult;
-    }
-
-
     @CacheResult(cacheName = "players-cache")
     public List<Player> findAllPlayers() {
         Log.info("#findAllPlayers()");
@@ -154,36 +179,71 @@ public class TennisService {
     public Player savePlayer(CreatePlayerDto dto) {
         Player player = Player.ofDto(dto);
         player.persist();
+        firestoreMirror.player(player);
         return player;
     }
 
     public PlayerStatsResponse getPlayerStats(String name, OpponentFilter filtersDto) {
-        var player = Player.findByName(name);
-        List<MatchResult> filtered = filterMatches(player.matches, filtersDto);
-        return new PlayerStatsResponse(
+        return getPlayerStats(name, filtersDto, FieldsFilter.all());
+    }
+
+    public PlayerStatsResponse getPlayerStats(String name, OpponentFilter filtersDto, FieldsFilter fields) {
+        var matches = metrics.time("stats", LOAD, () -> metrics.scanned("stats", Player.findByName(name).matches));
+        return getPlayerStats(name, filtersDto, matches, fields);
+    }
+
+    public Map<String, PlayerStatsResponse> getPlayersStats(List<String> names,
+                                                            OpponentFilter filtersDto,
+                                                            FieldsFilter fields) {
+        if (CollectionUtils.isEmpty(names)) {
+            throw new TennisApiException("At least one player name is required", 400);
+        }
+        List<String> distinctNames = names.stream().distinct().toList();
+        long foundPlayers = Player.count("name in ?1", distinctNames);
+        if (foundPlayers != distinctNames.size()) {
+            throw new TennisApiException("Some of players not found: " + findMissingPlayerNames(distinctNames), 404);
+        }
+        Map<String, List<MatchResult>> playerMatches = metrics.time("stats", LOAD,
+                        () -> metrics.scanned("stats", matchResultRepo.findByPlayerNames(distinctNames)))
+                .stream()
+                .collect(Collectors.groupingBy(mr -> mr.getPlayer().name));
+
+        Map<String, PlayerStatsResponse> result = new LinkedHashMap<>();
+        distinctNames.forEach(name -> result.put(name,
+                getPlayerStats(name, filtersDto, playerMatches.getOrDefault(name, List.of()), fields)));
+        return result;
+    }
+
+    private PlayerStatsResponse getPlayerStats(String name,
+                                               OpponentFilter filtersDto,
+                                               Collection<MatchResult> matches,
+                                               FieldsFilter fields) {
+        List<MatchResult> filtered = metrics.time("stats", FILTER, () -> filterMatches(matches, filtersDto));
+        return metrics.time("stats", AGGREGATE, () -> new PlayerStatsResponse(
                 name,
                 filtersDto,
-                getPlayerStatisticDto(filtered),
+                getPlayerStatisticDto(filtered, fields),
                 StatsUtils.linkedHashMapMatchType(
-                        getPlayerStatisticDto(filterMatches(filtered, SHORT)),
-                        getPlayerStatisticDto(filterMatches(filtered, LONG))
+                        getPlayerStatisticDto(filterMatches(filtered, SHORT), fields),
+                        getPlayerStatisticDto(filterMatches(filtered, LONG), fields)
                 ),
-                filtered.stream().map(MatchResult::getOpponent)
-                        .collect(Collectors.toSet())
+                filtered.stream()
+                        .collect(Collectors.groupingBy(mr -> mr.getOpponent().name))
+                        .entrySet()
                         .stream().collect(Collectors.toMap(
-                                opponent -> opponent.name,
-                                opponent -> StatsUtils.linkedHashMapMatchType(
-                                        getPlayerStatisticDto(filtered.stream().filter(mr -> mr.getOpponent().name.equals(opponent.name)).toList()),
-                                        getPlayerStatisticDto(filtered.stream().filter(mr -> mr.getOpponent().name.equals(opponent.name) && mr.getMatch().type.equals(SHORT)).toList()),
-                                        getPlayerStatisticDto(filtered.stream().filter(mr -> mr.getOpponent().name.equals(opponent.name) && mr.getMatch().type.equals(LONG)).toList()))))
-        );
+                                Map.Entry::getKey,
+                                e -> StatsUtils.linkedHashMapMatchType(
+                                        getPlayerStatisticDto(e.getValue(), fields),
+                                        getPlayerStatisticDto(filterMatches(e.getValue(), SHORT), fields),
+                                        getPlayerStatisticDto(filterMatches(e.getValue(), LONG), fields))))
+        ));
     }
 
     public PlayerMatchesResponse getPlayerMatches(String name, OpponentFilter filters, boolean bestFirst, boolean formatted) {
         Player player = Player.findByName(name);
         List<MatchResult> filtered = filterMatches(player.matches, filters)
                 .stream()
-                .sorted(Comparator.comparing(mr -> mr.getMatch().date, Comparator.reverseOrder()))
+                .sorted(Comparator.comparing(mr -> mr.getDate(), Comparator.reverseOrder()))
                 .toList();
 
 
@@ -216,90 +276,93 @@ public class TennisService {
 
 
     @CacheResult(cacheName = "records-cache")
-    public RecordsResponse getRecords() {
+    public RecordsResponse getRecords(FieldsFilter fields) {
         Log.info("#getRecords()");
-        List<MatchResult> allMatches = matchResultRepo.listAll();
-        return new RecordsResponse(
+        List<MatchResult> allMatches = metrics.time("records", LOAD,
+                () -> metrics.scanned("records", matchResultRepo.listAll()));
+        return metrics.time("records", AGGREGATE, () -> new RecordsResponse(
                 StatsUtils.linkedHashMapMatchType(
-                        getRecordListDto(allMatches),
-                        getRecordListDto(filterMatches(allMatches, SHORT)),
-                        getRecordListDto(filterMatches(allMatches, LONG))
+                        getRecordListDto(allMatches, fields),
+                        getRecordListDto(filterMatches(allMatches, SHORT), fields),
+                        getRecordListDto(filterMatches(allMatches, LONG), fields)
                 )
-        );
+        ));
     }
 
-    private RecordsResponse.RecordListDto getRecordListDto(List<MatchResult> matchResults) {
-        var playerToStats = matchResults.stream()
-                .collect(Collectors.groupingBy(MatchResult::getPlayer))
-                .entrySet()
-                .stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> getPlayerStatisticDto(e.getValue())));
+    private RecordsResponse.RecordListDto getRecordListDto(List<MatchResult> matchResults, FieldsFilter fields) {
+        var event = AnalyticsEvent.start();
+        var playerToStats = getPlayersLazyStats(matchResults, Function.identity());
 
-        return RecordsResponse.RecordListDto.builder()
-                .matches(
+        var records = RecordsResponse.RecordListDto.builder()
+                .matches(includeIf(fields, "matches", () ->
                         getRecordDto(playerToStats,
-                                Comparator.comparing(PlayerStatsDto::getMatches),
-                                PlayerStatsDto::getMatches)
+                                Comparator.comparing(LazyPlayerStats::getMatches),
+                                LazyPlayerStats::getMatches))
                 )
-                .wins(
+                .wins(includeIf(fields, "wins", () ->
                         getRecordDto(playerToStats,
-                                Comparator.comparing(PlayerStatsDto::getWins),
-                                PlayerStatsDto::getWins)
+                                Comparator.comparing(LazyPlayerStats::getWins),
+                                LazyPlayerStats::getWins))
                 )
-                .loses(
+                .loses(includeIf(fields, "loses", () ->
                         getRecordDto(playerToStats,
-                                Comparator.comparing(PlayerStatsDto::getLoses),
-                                PlayerStatsDto::getLoses)
+                                Comparator.comparing(LazyPlayerStats::getLoses),
+                                LazyPlayerStats::getLoses))
                 )
-                .winRate(
+                .winRate(includeIf(fields, "winRate", () ->
                         getRecordDto(playerToStats,
-                                Comparator.comparing(PlayerStatsDto::getWinRate),
-                                PlayerStatsDto::getWinRate)
+                                Comparator.comparing(LazyPlayerStats::getWinRate),
+                                LazyPlayerStats::getWinRate))
                 )
-                .winStreak(
+                .winStreak(includeIf(fields, "winStreak", () ->
                         getRecordDto(playerToStats,
-                                Comparator.comparing(PlayerStatsDto::getWinStreak),
-                                PlayerStatsDto::getWinStreak)
+                                Comparator.comparing(LazyPlayerStats::getWinStreak),
+                                LazyPlayerStats::getWinStreak))
                 )
-                .loseStreak(
+                .loseStreak(includeIf(fields, "loseStreak", () ->
                         getRecordDto(playerToStats,
-                                Comparator.comparing(PlayerStatsDto::getLoseStreak),
-                                PlayerStatsDto::getLoseStreak)
+                                Comparator.comparing(LazyPlayerStats::getLoseStreak),
+                                LazyPlayerStats::getLoseStreak))
                 )
-                .pointsScored(
+                .pointsScored(includeIf(fields, "pointsScored", () ->
                         getRecordDto(playerToStats,
-                                Comparator.comparing(PlayerStatsDto::getPointsScored),
-                                PlayerStatsDto::getPointsScored)
+                                Comparator.comparing(LazyPlayerStats::getPointsScored),
+                                LazyPlayerStats::getPointsScored))
                 )
-                .avgPointsScored(
+                .avgPointsScored(includeIf(fields, "avgPointsScored", () ->
                         getRecordDto(playerToStats,
-                                Comparator.comparing(PlayerStatsDto::getAvgPointsScored),
-                                PlayerStatsDto::getAvgPointsScored)
+                                Comparator.comparing(LazyPlayerStats::getAvgPointsScored),
+                                LazyPlayerStats::getAvgPointsScored))
                 )
-                .pointsMissed(
+                .pointsMissed(includeIf(fields, "pointsMissed", () ->
                         getRecordDto(playerToStats,
-                                Comparator.comparing(PlayerStatsDto::getPointsMissed),
-                                PlayerStatsDto::getPointsMissed)
+                                Comparator.comparing(LazyPlayerStats::getPointsMissed),
+                                LazyPlayerStats::getPointsMissed))
                 )
-                .avgPointsMissed(
+                .avgPointsMissed(includeIf(fields, "avgPointsMissed", () ->
                         getRecordDto(playerToStats,
-                                Comparator.comparing(PlayerStatsDto::getAvgPointsMissed),
-                                PlayerStatsDto::getAvgPointsMissed)
+                                Comparator.comparing(LazyPlayerStats::getAvgPointsMissed),
+                                LazyPlayerStats::getAvgPointsMissed))
                 )
-                .pointsRate(
+                .pointsRate(includeIf(fields, "pointsRate", () ->
                         getRecordDto(playerToStats,
-                                Comparator.comparing(PlayerStatsDto::getPointsRate),
-                                PlayerStatsDto::getPointsRate)
+                                Comparator.comparing(LazyPlayerStats::getPointsRate),
+                                LazyPlayerStats::getPointsRate))
                 )
                 .build();
+        event.finish("records", null, fields, matchResults.size(), playerToStats.size());
+        return records;
     }
 
     private RecordsResponse.RecordListDto.RecordDto getRecordDto(
-            Map<Player, PlayerStatsDto> playersStats,
-            Comparator<? super PlayerStatsDto> sortComparator,
-            Function<? super PlayerStatsDto, Object> valueExtractor) {
+            Map<Player, LazyPlayerStats> playersStats,
+            Comparator<? super LazyPlayerStats> sortComparator,
+            Function<? super LazyPlayerStats, Object> valueExtractor) {
         List<PlayerValueDto> ratingsList =
                 getRatingsList(playersStats, sortComparator, valueExtractor);
+        if (ratingsList.isEmpty()) {
+            return null;
+        }
         return new RecordsResponse.RecordListDto.RecordDto(
                 ratingsList.get(0),
                 ratingsList.get(ratingsList.size() - 1)
@@ -318,60 +381,85 @@ public class TennisService {
     }
 
 
-    public RatingsResponse getRatings(BaseFilter filter, Optional<Integer> limit) {
+    public RatingsResponse getRatings(BaseFilter filter, Optional<Integer> limit, FieldsFilter fields) {
         Log.info("#getRatings()");
-        List<MatchResult> filtered = filterMatches(matchResultRepo.listAll(), filter);
+        List<MatchResult> allMatches = metrics.time("ratings", LOAD,
+                () -> metrics.scanned("ratings", matchResultRepo.listAll()));
+        List<MatchResult> filtered = metrics.time("ratings", FILTER, () -> filterMatches(allMatches, filter));
+        return metrics.time("ratings", AGGREGATE, () -> new RatingsResponse(
+                StatsUtils.linkedHashMapMatchType(
+                        getRatingListDto(filtered, limit, fields),
+                        getRatingListDto(filterMatches(filtered, SHORT), limit, fields),
+                        getRatingListDto(filterMatches(filtered, LONG), limit, fields)
+                )
+        ));
+    }
+
+    public RatingsResponse getPlayersRatings(Collection<String> names) {
+        List<MatchResult> matches = matchResultRepo.findByPlayerNames(names);
         return new RatingsResponse(
                 StatsUtils.linkedHashMapMatchType(
-                        getRatingListDto(filtered, limit),
-                        getRatingListDto(filterMatches(filtered, SHORT), limit),
-                        getRatingListDto(filterMatches(filtered, LONG), limit)
+                        getRatingListDto(matches, Optional.empty(), FieldsFilter.all()),
+                        getRatingListDto(filterMatches(matches, SHORT), Optional.empty(), FieldsFilter.all()),
+                        getRatingListDto(filterMatches(matches, LONG), Optional.empty(), FieldsFilter.all())
                 )
         );
     }
 
     private RatingsResponse.RatingsListDto getRatingListDto(List<MatchResult> matchResults,
-                                                            Optional<Integer> limit) {
-        var playerToStats = matchResults.stream()
+                                                            Optional<Integer> limit,
+                                                            FieldsFilter fields) {
+        var event = AnalyticsEvent.start();
+        var playerToStats = getPlayersLazyStats(matchResults, matches -> subLastMatches(matches, limit));
+
+        var ratings = RatingsResponse.RatingsListDto.builder()
+                .matches(includeIf(fields, "matches", () -> getRatingsList(playerToStats, Comparator.comparing(LazyPlayerStats::getMatches), LazyPlayerStats::getMatches)))
+                .winRate(includeIf(fields, "winRate", () -> getRatingsList(playerToStats, Comparator.comparing(LazyPlayerStats::getWinRate), LazyPlayerStats::getWinRate)))
+                .winStreak(includeIf(fields, "winStreak", () -> getRatingsList(playerToStats, Comparator.comparing(LazyPlayerStats::getWinStreak), LazyPlayerStats::getWinStreak)))
+                .loseStreak(includeIf(fields, "loseStreak", () -> getRatingsList(playerToStats, Comparator.comparing(LazyPlayerStats::getLoseStreak), LazyPlayerStats::getLoseStreak)))
+                .pointsRate(includeIf(fields, "pointsRate", () -> getRatingsList(playerToStats, Comparator.comparing(LazyPlayerStats::getPointsRate), LazyPlayerStats::getPointsRate)))
+                .avgScored(includeIf(fields, "avgScored", () -> getRatingsList(playerToStats, Comparator.comparing(LazyPlayerStats::getAvgPointsScored), LazyPlayerStats::getAvgPointsScored)))
+                .avgMissed(includeIf(fields, "avgMissed", () -> getRatingsList(playerToStats, Comparator.comparing(LazyPlayerStats::getAvgPointsMissed), LazyPlayerStats::getAvgPointsMissed)))
+                .build();
+        event.finish("ratings", null, fields, matchResults.size(), playerToStats.size());
+        return ratings;
+    }
+
+    private Map<Player, LazyPlayerStats> getPlayersLazyStats(List<MatchResult> matchResults,
+                                                            Function<List<MatchResult>, List<MatchResult>> matchesMapper) {
+        return matchResults.stream()
                 .collect(Collectors.groupingBy(MatchResult::getPlayer))
                 .entrySet()
                 .stream()
                 .collect(Collectors.toMap(
                         Map.Entry::getKey,
-                        e -> getPlayerStatisticDto(subLastMatches(e.getValue(), limit))
+                        e -> new LazyPlayerStats(matchesMapper.apply(e.getValue()))
                 ));
-
-        return RatingsResponse.RatingsListDto.builder()
-                .matches(getRatingsList(playerToStats, Comparator.comparing(PlayerStatsDto::getMatches), PlayerStatsDto::getMatches))
-                .winRate(getRatingsList(playerToStats, Comparator.comparing(PlayerStatsDto::getWinRate), PlayerStatsDto::getWinRate))
-                .winStreak(getRatingsList(playerToStats, Comparator.comparing(PlayerStatsDto::getWinStreak), PlayerStatsDto::getWinStreak))
-                .loseStreak(getRatingsList(playerToStats, Comparator.comparing(PlayerStatsDto::getLoseStreak), PlayerStatsDto::getLoseStreak))
-                .pointsRate(getRatingsList(playerToStats, Comparator.comparing(PlayerStatsDto::getPointsRate), PlayerStatsDto::getPointsRate))
-                .avgScored(getRatingsList(playerToStats, Comparator.comparing(PlayerStatsDto::getAvgPointsScored), PlayerStatsDto::getAvgPointsScored))
-                .avgMissed(getRatingsList(playerToStats, Comparator.comparing(PlayerStatsDto::getAvgPointsMissed), PlayerStatsDto::getAvgPointsMissed))
-                .build();
     }
 
-    private List<PlayerValueDto> getRatingsList(Map<Player, PlayerStatsDto> playerAndStats,
-                                                Comparator<? super PlayerStatsDto> sortComparator,
-                                                Function<? super PlayerStatsDto, Object> valueExtractor) {
-        return playerAndStats.entrySet()
+    private List<PlayerValueDto> getRatingsList(Map<Player, LazyPlayerStats> playerAndStats,
+                                                Comparator<? super LazyPlayerStats> sortComparator,
+                                                Function<? super LazyPlayerStats, Object> valueExtractor) {
+        return metrics.time("ratings", SORT, () -> playerAndStats.entrySet()
                 .stream()
                 .sorted(Map.Entry.comparingByValue(sortComparator.reversed()))
                 .map(e -> new PlayerValueDto(
                         e.getKey().name,
                         String.valueOf(valueExtractor.apply(e.getValue()))
                 ))
-                .toList();
+                .toList());
     }
 
 
     public RatingProgressResponse getProgressRating(MatchType matchType, BaseFilter filter, Integer chunk) {
-        List<MatchResult> filtered = filterMatches(matchResultRepo.listAll(), filter, matchType);
+        List<MatchResult> allMatches = metrics.time("ratings-progress", LOAD,
+                () -> metrics.scanned("ratings-progress", matchResultRepo.listAll()));
+        List<MatchResult> filtered = metrics.time("ratings-progress", FILTER,
+                () -> filterMatches(allMatches, filter, matchType));
         return new RatingProgressResponse(
                 matchType,
                 chunk,
-                getRatingProgressListDto(filtered, chunk)
+                metrics.time("ratings-progress", AGGREGATE, () -> getRatingProgressListDto(filtered, chunk))
         );
     }
 
@@ -413,38 +501,50 @@ public class TennisService {
     }
 
     public PlayerHistoryResponse getPlayerHistory(String playerName, BaseFilter filters, Integer chunkSize) {
-        var allMatches = filterMatches(Player.findByName(playerName).matches, filters);
-        return new PlayerHistoryResponse(
+        var matches = metrics.time("history", LOAD,
+                () -> metrics.scanned("history", Player.findByName(playerName).matches));
+        var allMatches = metrics.time("history", FILTER, () -> filterMatches(matches, filters));
+        return metrics.time("history", AGGREGATE, () -> new PlayerHistoryResponse(
                 chunkSize,
                 StatsUtils.linkedHashMapMatchType(
-                        getHistoryDtoList(filterMatches(allMatches, SHORT), chunkSize),
-                        getHistoryDtoList(filterMatches(allMatches, LONG), chunkSize))
-        );
+                        getHistoryDtoList(playerName, filters, filterMatches(allMatches, SHORT), chunkSize),
+                        getHistoryDtoList(playerName, filters, filterMatches(allMatches, LONG), chunkSize))
+        ));
     }
 
     public ByteArrayInputStream getPlayerHistoryInExcel(String name, BaseFilter filters, Integer chunkSize) {
-        var allMatches = filterMatches(Player.findByName(name).matches, filters);
-
-        return excelReportService.generateHistoryReport(
-                getHistoryDtoList(filterMatches(allMatches, SHORT), chunkSize),
-                getHistoryDtoList(filterMatches(allMatches, LONG), chunkSize));
-    }
-
-    private PlayerHistoryResponse.PlayerStatsHistoryListDto getHistoryDtoList(List<MatchResult> matches, int chunkSize) {
-        List<MatchResult> sortedList = matches.stream().sorted(Comparator.comparing(mr -> mr.getMatch().date)).toList();
-        return PlayerHistoryResponse.PlayerStatsHistoryListDto.builder()
+        var matches = metrics.time("history-xlsx", LOAD,
+                () -> metrics.scanned("history-xlsx", Player.findByName(name).matches));
+        var allMatches = metrics.time("history-xlsx", FILTER, () -> filterMatches(matches, filters));
+        var shortHistory = metrics.time("history-xlsx", AGGREGATE,
+                () -> getHistoryDtoList(name, filters, filterMatches(allMatches, SHORT), chunkSize));
+        var longHistory = metrics.time("history-xlsx", AGGREGATE,
+                () -> getHistoryDtoList(name, filters, filterMatches(allMatches, LONG), chunkSize));
+
+        return excelReportService.generateHistoryReport(shortHistory, longHistory);
+    }
+
+    private PlayerHistoryResponse.PlayerStatsHistoryListDto getHistoryDtoList(String playerName,
+                                                                              BaseFilter filters,
+                                                                              List<MatchResult> matches,
+                                                                              int chunkSize) {
+        var event = AnalyticsEvent.start();
+        List<MatchResult> sortedList = matches.stream().sorted(Comparator.comparing(mr -> mr.getDate())).toList();
+        var history = PlayerHistoryResponse.PlayerStatsHistoryListDto.builder()
                 .matchesCount(matches.size())
-                .winRate(getHistoryOfSpecificStatsFromMatches(sortedList, PlayerStatsDto::getWinRate, chunkSize))
+                .winRate(getHistoryOfSpecificStatsFromMatches(sortedList, LazyPlayerStats::getWinRate, chunkSize))
                 .pointsScored(sortedList.stream().mapToDouble(MatchResult::getScored).boxed().toList())
                 .pointsMissed(sortedList.stream().mapToDouble(MatchResult::getMissed).boxed().toList())
-                .avgPointsScored(getHistoryOfSpecificStatsFromMatches(sortedList, PlayerStatsDto::getAvgPointsScored, chunkSize))
-                .avgPointsMissed(getHistoryOfSpecificStatsFromMatches(sortedList, PlayerStatsDto::getAvgPointsMissed, chunkSize))
-                .pointsRate(getHistoryOfSpecificStatsFromMatches(sortedList, PlayerStatsDto::getPointsRate, chunkSize))
+                .avgPointsScored(getHistoryOfSpecificStatsFromMatches(sortedList, LazyPlayerStats::getAvgPointsScored, chunkSize))
+                .avgPointsMissed(getHistoryOfSpecificStatsFromMatches(sortedList, LazyPlayerStats::getAvgPointsMissed, chunkSize))
+                .pointsRate(getHistoryOfSpecificStatsFromMatches(sortedList, LazyPlayerStats::getPointsRate, chunkSize))
                 .build();
+        event.finish("history", playerName, filters, matches.size(), history.getWinRate().size());
+        return history;
     }
 
     private <T> List<T> getHistoryOfSpecificStatsFromMatches(List<MatchResult> matches,
-                                                             Function<PlayerStatsDto, T> valueExtractor,
+                                                             Function<LazyPlayerStats, T> valueExtractor,
                                                              int chunkSize) {
         List<T> result = new ArrayList<>();
         int totalMatchesCount = matches.size();
@@ -458,7 +558,7 @@ public class TennisService {
                     matches.stream()
                             .limit(currChunkSize)
                             .toList();
-            result.add(valueExtractor.apply(getPlayerStatisticDto(matchesChunk)));
+            result.add(valueExtractor.apply(new LazyPlayerStats(matchesChunk)));
             currChunkSize = Math.min(currChunkSize + chunkSize, totalMatchesCount);
             chunkCounter++;
         }
@@ -472,9 +572,9 @@ public class TennisService {
                 : filterMatches(allMatches, matchType);
 
         var groupedByDay = filtered.stream()
-                .sorted(Comparator.comparing(mr -> mr.getMatch().date))
+                .sorted(Comparator.comparing(mr -> mr.getDate()))
                 .collect(Collectors.groupingBy(
-                        mr -> LocalDate.ofInstant(mr.getMatch().date, ZoneId.systemDefault()),
+                        mr -> LocalDate.ofInstant(mr.getDate(), ZoneId.systemDefault()),
                         LinkedHashMap::new,
                         Collectors.toList()));
 
@@ -541,18 +641,26 @@ public class TennisService {
     }
 
     public MatchPredictionResponse predictMatchWinner(String playerName, String opponentName, MatchType matchType) {
-        Player player = Player.findByName(playerName);
-        Player opponent = Player.findByName(opponentName);
+        return predictionCache.get(playerName, opponentName, matchType,
+                () -> calculateMatchWinner(playerName, opponentName, matchType));
+    }
 
-        List<MatchPredictDto> predicts = predictService.getMatchPredictDtoList(
-                filterMatches(player.matches, matchType)
-                        .stream()
+    private MatchPredictionResponse calculateMatchWinner(String playerName, String opponentName, MatchType matchType) {
+        Player player = metrics.time("predict", LOAD, () -> Player.findByName(playerName));
+        Player opponent = metrics.time("predict", LOAD, () -> Player.findByName(opponentName));
+        metrics.scanned("predict", player.matches);
+        metrics.scanned("predict", opponent.matches);
+
+        List<MatchResult> playerMatches = metrics.time("predict", FILTER, () -> filterMatches(player.matches, matchType));
+        List<MatchResult> opponentMatches = metrics.time("predict", FILTER, () -> filterMatches(opponent.matches, matchType));
+        List<MatchPredictDto> predicts = metrics.time("predict", AGGREGATE, () -> predictService.getMatchPredictDtoList(
+                playerMatches.stream()
                         .filter(mr -> mr.getOpponent().equals(opponent))
                         .toList(),
-                filterMatches(player.matches, matchType),
-                filterMatches(opponent.matches, matchType),
+                playerMatches,
+                opponentMatches,
                 matchType
-        );
+        ));
 
         return new MatchPredictionResponse(
                 predicts.stream().mapToDouble(MatchPredictDto::getProbability).sum(),
@@ -562,12 +670,103 @@ public class TennisService {
         );
     }
 
+    public MatchSimulationResponse simulateMatch(String playerName,
+                                                 String opponentName,
+                                                 MatchType matchType,
+                                                 int simulations,
+                                                 long seed) {
+        if (simulations <= 0) {
+            throw new TennisApiException("Simulations count should be positive", 400);
+        }
+        Player player = metrics.time("simulate", LOAD, () -> Player.findByName(playerName));
+        Player opponent = metrics.time("simulate", LOAD, () -> Player.findByName(opponentName));
+        metrics.scanned("simulate", player.matches);
+        metrics.scanned("simulate", opponent.matches);
+        List<MatchResult> playerMatches = metrics.time("simulate", FILTER, () -> filterMatches(player.matches, matchType));
+        List<MatchResult> opponentMatches = metrics.time("simulate", FILTER, () -> filterMatches(opponent.matches, matchType));
+
+        double rallyWinProbability = predictService.getRallyWinProbability(
+                playerMatches.stream()
+                        .filter(mr -> mr.getOpponent().equals(opponent))
+                        .toList(),
+                playerMatches,
+                opponentMatches);
+        return predictService.simulateMatch(playerName, opponentName, matchType, rallyWinProbability, simulations, seed);
+    }
+
+    public PredictionMatrixResponse getPredictionMatrix(List<String> names,
+                                                        MatchType matchType,
+                                                        Optional<Integer> simulations,
+                                                        long seed) {
+        if (CollectionUtils.isEmpty(names) || names.stream().distinct().count() < 2) {
+            throw new TennisApiException("At least two player names are required", 400);
+        }
+        if (simulations.isPresent() && simulations.get() <= 0) {
+            throw new TennisApiException("Simulations count should be positive", 400);
+        }
+        List<String> distinctNames = names.stream().distinct().toList();
+        Map<Long, Integer> indexes = getPlayerIndexes(distinctNames);
+        if (indexes.size() != distinctNames.size()) {
+            throw new TennisApiException("Some of players not found: " + findMissingPlayerNames(distinctNames), 404);
+        }
+        if (matchFactSnapshot.isReady()) {
+            return predictService.getPredictionMatrix(distinctNames,
+                    matchType,
+                    () -> getRallyTotals(matchFactSnapshot.view(), indexes, matchType),
+                    simulations.orElse(null),
+                    seed);
+        }
+        return predictService.getPredictionMatrix(distinctNames,
+                matchType,
+                metrics.time("matrix", LOAD,
+                        () -> metrics.scanned("matrix", matchResultRepo.findByPlayerNames(distinctNames))),
+                simulations.orElse(null),
+                seed);
+    }
+
+    private List<String> findMissingPlayerNames(List<String> names) {
+        List<String> found = Player.getEntityManager()
+                .createQuery("select p.name from Player p where p.name in ?1", String.class)
+                .setParameter(1, names)
+                .getResultList();
+        return names.stream().filter(name -> !found.contains(name)).toList();
+    }
+
+    /**
+     * Player id to its position in {@code names}, read without loading the players' matches.
+     */
+    private Map<Long, Integer> getPlayerIndexes(List<String> names) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            positions.put(names.get(i), i);
+        }
+        return Player.getEntityManager()
+                .createQuery("select p.id, p.name from Player p where p.name in ?1", Object[].class)
+                .setParameter(1, names)
+                .getResultStream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> positions.get((String) row[1])));
+    }
+
+    private PredictService.RallyTotals getRallyTotals(MatchFactSnapshot.View facts,
+                                                      Map<Long, Integer> indexes,
+                                                      MatchType matchType) {
+        var totals = new PredictService.RallyTotals(indexes.size());
+        for (int row = 0; row < facts.size(); row++) {
+            Integer player = indexes.get(facts.playerId(row));
+            if (player != null && facts.type(row) == matchType) {
+                totals.add(player, indexes.getOrDefault(facts.opponentId(row), -1),
+                        facts.scored(row), facts.missed(row));
+            }
+        }
+        return totals;
+    }
+
     private List<MatchResult> subLastMatches(Collection<MatchResult> matches, Optional<Integer> chunk) {
         int listSize = matches.size();
         int limitVal = chunk.orElse(listSize);
         return matches
                 .stream()
-                .sorted(Comparator.comparing(mr -> mr.getMatch().date, Comparator.reverseOrder()))
+                .sorted(Comparator.comparing(mr -> mr.getDate(), Comparator.reverseOrder()))
                 .limit(limitVal).toList();
     }
 
@@ -577,37 +776,19 @@ public class TennisService {
                 .orElse(0);
         return matches
                 .stream()
-                .sorted(Comparator.comparing(mr -> mr.getMatch().date, Comparator.reverseOrder()))
+                .sorted(Comparator.comparing(mr -> mr.getDate(), Comparator.reverseOrder()))
                 .skip(skipVal).toList();
     }
 
     private List<MatchResult> filterMatches(Collection<MatchResult> matches, MatchType... types) {
-        return filterMatches(matches, null, types);
+        return StatsUtils.filterMatches(matches, null, this::findTournamentId, types);
     }
 
     private List<MatchResult> filterMatches(Collection<MatchResult> matches, BaseFilter filters, MatchType... types) {
-        if (filters == null && (types == null || types.length == 0)) {
-            return matches.stream().toList();
-        }
-        List<Predicate<MatchResult>> predicates = new ArrayList<>();
-        if (filters != null) {
-            if (StringUtils.isNotEmpty(filters.getOpponent())) {
-                predicates.add(mr -> mr.getOpponent().name.equals(filters.getOpponent()));
-            }
-            if (StringUtils.isNotEmpty(filters.getTournament())) {
-                predicates.add(mr -> Optional.ofNullable(mr.getMatch().tournament)
-                        .map(tournament -> tournament.name.equals(filters.getTournament()))
-                        .orElse(Boolean.FALSE));
-            }
-            if (CollectionUtils.isNotEmpty(filters.getStages())) {
-                predicates.add(mr -> filters.getStages().contains(mr.getMatch().stage));
-            }
-        }
-        if (types.length > 0) {
-            predicates.add(mr -> Arrays.asList(types).contains(mr.getMatch().type));
-        }
-        return matches.stream()
-                .filter(mr -> predicates.stream().allMatch(predicate -> predicate.test(mr)))
-                .toList();
+        return StatsUtils.filterMatches(matches, filters, this::findTournamentId, types);
+    }
+
+    private Long findTournamentId(String name) {
+        return Tournament.findByName(name).map(tournament -> tournament.id).orElse(null);
     }
 }
@@ -6,9 +6,11 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
+import org.rsinitsyn.config.StageMetrics;
 import org.rsinitsyn.domain.MatchResult;
 import org.rsinitsyn.domain.Player;
 import org.rsinitsyn.domain.Tournament;
@@ -20,6 +22,9 @@ import org.rsinitsyn.exception.TennisApiException;
 import org.rsinitsyn.repo.MatchResultRepo;
 import org.rsinitsyn.utils.ConverterUtils;
 
+import static org.rsinitsyn.config.StageMetrics.AGGREGATE;
+import static org.rsinitsyn.config.StageMetrics.LOAD;
+import static org.rsinitsyn.config.StageMetrics.SORT;
 import static org.rsinitsyn.dto.response.TournamentHistoryResponse.PlayerLeagueResultDto;
 import static org.rsinitsyn.utils.ConverterUtils.getPlayerStatisticDto;
 
@@ -29,29 +34,32 @@ public class TournamentService {
 
     @Inject
     MatchResultRepo matchResultRepo;
+    @Inject
+    StageMetrics metrics;
 
     public TournamentHistoryResponse getTournamentHistory(String name) {
         var tournament = (Tournament)
                 Tournament.findByName(name).orElseThrow(() -> new TennisApiException("Not found tournament", 404));
-        var allMatches = matchResultRepo.findAllDistinct().stream()
-                .filter(mr -> mr.getMatch().tournament != null)
-                .filter(mr -> mr.getMatch().tournament.name.equals(name))
-                .sorted(Comparator.comparing(mr -> mr.getMatch().stage.ordinal()))
-                .toList();
+        var distinctMatches = metrics.time("tournament-history", LOAD,
+                () -> metrics.scanned("tournament-history", matchResultRepo.findDistinctByTournament(tournament.id)));
+        var allMatches = metrics.time("tournament-history", SORT, () -> distinctMatches.stream()
+                .sorted(Comparator.comparing(mr -> mr.getStage().ordinal()))
+                .toList());
 
-        LinkedHashMap<TournamentStage, List<String>> history = allMatches.stream()
-                .collect(Collectors.groupingBy(
-                        mr -> mr.getMatch().stage,
-                        LinkedHashMap::new,
-                        Collectors.mapping(mr -> ConverterUtils.getMatchDetailsDto(mr).getRepresentation(), Collectors.toList())));
+        LinkedHashMap<TournamentStage, List<String>> history = metrics.time("tournament-history", AGGREGATE,
+                () -> allMatches.stream()
+                        .collect(Collectors.groupingBy(
+                                mr -> mr.getStage(),
+                                LinkedHashMap::new,
+                                Collectors.mapping(mr -> ConverterUtils.getMatchDetailsDto(mr).getRepresentation(), Collectors.toList()))));
 
         List<String> table = null;
         if (tournament.type.equals(TournamentType.LEAGUE)) {
-            table = getLeagueTable(matchResultRepo.streamAll()
-                    .filter(mr -> mr.getMatch().tournament != null)
-                    .filter(mr -> mr.getMatch().tournament.name.equals(name))
-                    .sorted(Comparator.comparing(mr -> mr.getMatch().stage.ordinal()))
-                    .toList());
+            // Rows are read while they are grouped by player, the stage times loading and aggregation together
+            try (var leagueMatches = metrics.scanned("tournament-history",
+                    matchResultRepo.streamByTournament(tournament.id))) {
+                table = metrics.time("tournament-history", AGGREGATE, () -> getLeagueTable(leagueMatches));
+            }
         }
 
         return new TournamentHistoryResponse(
@@ -61,13 +69,13 @@ public class TournamentService {
         );
     }
 
-    private List<String> getLeagueTable(List<MatchResult> matchResults) {
+    private List<String> getLeagueTable(Stream<MatchResult> matchResults) {
         String rowFormat = "%7s | %6s | %6s | %5s | %3s | %3s";
         List<String> tableRow = new ArrayList<>();
         tableRow.add(String.format(rowFormat, "Name", "Scored", "Missed", "Rate", "W", "L"));
         tableRow.add(String.format(rowFormat, "-".repeat(7), "-".repeat(6), "-".repeat(6), "-".repeat(5), "-".repeat(3), "-".repeat(3)));
 
-        Map<Player, List<MatchResult>> playerMatches = matchResults.stream()
+        Map<Player, List<MatchResult>> playerMatches = matchResults
                 .collect(Collectors.groupingBy(MatchResult::getPlayer));
         var results = playerMatches.entrySet().stream().map(e -> {
                     PlayerStatsResponse.PlayerStatsDto stats = getPlayerStatisticDto(e.getValue());
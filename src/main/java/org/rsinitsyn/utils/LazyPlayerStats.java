@@ -0,0 +1,144 @@
+package org.rsinitsyn.utils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import org.rsinitsyn.domain.MatchResult;
+
+import static org.rsinitsyn.utils.StatsUtils.divide;
+import static org.rsinitsyn.utils.StatsUtils.longestStreak;
+
+/**
+ * Statistics over a list of match results where every metric is computed on first access and then reused,
+ * so callers that need only a few metrics don't pay for medians, streaks and trends.
+ */
+public class LazyPlayerStats {
+    private final List<MatchResult> matches;
+    private final Supplier<Integer> wins;
+    private final Supplier<Integer> overtimes;
+    private final Supplier<Integer> winStreak;
+    private final Supplier<Integer> loseStreak;
+    private final Supplier<Integer> pointsScored;
+    private final Supplier<Integer> pointsMissed;
+    private final Supplier<Integer> medianPointsScored;
+    private final Supplier<Integer> medianPointsMissed;
+    private final Supplier<Map<Integer, Integer>> scoredTrend;
+    private final Supplier<Map<Integer, Integer>> missedTrend;
+
+    public LazyPlayerStats(List<MatchResult> matches) {
+        this.matches = matches;
+        this.wins = memoize(() -> (int) matches.stream().filter(MatchResult::isWinner).count());
+        this.overtimes = memoize(() -> (int) matches.stream().filter(MatchResult::isExtraRound).count());
+        this.winStreak = memoize(() -> longestStreak(matches, MatchResult::isWinner));
+        this.loseStreak = memoize(() -> longestStreak(matches, mr -> !mr.isWinner()));
+        this.pointsScored = memoize(() -> matches.stream().mapToInt(MatchResult::getScored).sum());
+        this.pointsMissed = memoize(() -> matches.stream().mapToInt(MatchResult::getMissed).sum());
+        this.medianPointsScored = memoize(() -> getMedianValue(matches, MatchResult::getScored));
+        this.medianPointsMissed = memoize(() -> getMedianValue(matches, MatchResult::getMissed));
+        this.scoredTrend = memoize(() -> getTrendValue(matches, MatchResult::getScored));
+        this.missedTrend = memoize(() -> getTrendValue(matches, MatchResult::getMissed));
+    }
+
+    public int getMatches() {
+        return matches.size();
+    }
+
+    public int getWins() {
+        return wins.get();
+    }
+
+    public int getLoses() {
+        return getMatches() - getWins();
+    }
+
+    public double getWinRate() {
+        return divide(getWins() * 100, getMatches());
+    }
+
+    public int getOvertimes() {
+        return overtimes.get();
+    }
+
+    public int getWinStreak() {
+        return winStreak.get();
+    }
+
+    public int getLoseStreak() {
+        return loseStreak.get();
+    }
+
+    public int getPointsScored() {
+        return pointsScored.get();
+    }
+
+    public int getPointsMissed() {
+        return pointsMissed.get();
+    }
+
+    public double getAvgPointsScored() {
+        return divide(getPointsScored(), getMatches());
+    }
+
+    public double getAvgPointsMissed() {
+        return divide(getPointsMissed(), getMatches());
+    }
+
+    public int getMedianPointsScored() {
+        return medianPointsScored.get();
+    }
+
+    public int getMedianPointsMissed() {
+        return medianPointsMissed.get();
+    }
+
+    public double getPointsRate() {
+        return divide(getPointsScored(), getPointsMissed());
+    }
+
+    public Map<Integer, Integer> getScoredTrend() {
+        return scoredTrend.get();
+    }
+
+    public Map<Integer, Integer> getMissedTrend() {
+        return missedTrend.get();
+    }
+
+    private static <T> Supplier<T> memoize(Supplier<T> supplier) {
+        return new Supplier<>() {
+            private T value;
+
+            @Override
+            public T get() {
+                if (value == null) {
+                    value = supplier.get();
+                }
+                return value;
+            }
+        };
+    }
+
+    private static Map<Integer, Integer> getTrendValue(List<MatchResult> matches,
+                                                       ToIntFunction<? super MatchResult> valueExtractor) {
+        return matches.stream()
+                .mapToInt(valueExtractor)
+                .boxed()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
+                .entrySet()
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                        e -> e.getValue().intValue()));
+    }
+
+    private static int getMedianValue(List<MatchResult> matches,
+                                      ToDoubleFunction<? super MatchResult> valueExtractor) {
+        return StatsUtils.median(
+                matches.stream()
+                        .mapToDouble(valueExtractor)
+                        .sorted()
+                        .toArray());
+    }
+}
@@ -2,17 +2,23 @@ package org.rsinitsyn.utils;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.rsinitsyn.domain.MatchResult;
 import org.rsinitsyn.domain.MatchType;
+import org.rsinitsyn.dto.request.BaseFilter;
 
 public class StatsUtils {
 
@@ -39,7 +45,7 @@ public class StatsUtils {
         AtomicInteger currStreak = new AtomicInteger(0);
         AtomicInteger maxStreak = new AtomicInteger(0);
         matches.stream()
-                .sorted(Comparator.comparing(mr -> mr.getMatch().date))
+                .sorted(Comparator.comparing(mr -> mr.getDate()))
                 .forEach(mr -> {
                     if (predicate.test(mr)) {
                         currStreak.incrementAndGet();
@@ -53,6 +59,44 @@ public class StatsUtils {
         return maxStreak.get();
     }
 
+    public static List<MatchResult> filterMatches(Collection<MatchResult> matches, MatchType... types) {
+        return filterMatches(matches, null, name -> null, types);
+    }
+
+    /**
+     * Matches passing the filters and of one of the types, any type when none is given.
+     *
+     * @param tournamentIds resolves the tournament name of the filters, {@code null} when there is no such
+     *                      tournament
+     */
+    public static List<MatchResult> filterMatches(Collection<MatchResult> matches,
+                                                  BaseFilter filters,
+                                                  Function<String, Long> tournamentIds,
+                                                  MatchType... types) {
+        if (filters == null && (types == null || types.length == 0)) {
+            return matches.stream().toList();
+        }
+        List<Predicate<MatchResult>> predicates = new ArrayList<>();
+        if (filters != null) {
+            if (StringUtils.isNotEmpty(filters.getOpponent())) {
+                predicates.add(mr -> mr.getOpponent().name.equals(filters.getOpponent()));
+            }
+            if (StringUtils.isNotEmpty(filters.getTournament())) {
+                Long tournamentId = tournamentIds.apply(filters.getTournament());
+                predicates.add(mr -> tournamentId != null && tournamentId.equals(mr.getTournamentId()));
+            }
+            if (CollectionUtils.isNotEmpty(filters.getStages())) {
+                predicates.add(mr -> filters.getStages().contains(mr.getStage()));
+            }
+        }
+        if (types.length > 0) {
+            predicates.add(mr -> Arrays.asList(types).contains(mr.getType()));
+        }
+        return matches.stream()
+                .filter(mr -> predicates.stream().allMatch(predicate -> predicate.test(mr)))
+                .toList();
+    }
+
     public static <T> Map<String, T> linkedHashMapMatchType(T allVal, T shortVal, T longVal) {
         Map<String, T> map = new LinkedHashMap<>();
         map.put("ALL", allVal);
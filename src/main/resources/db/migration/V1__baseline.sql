@@ -0,0 +1,73 @@
+-- Schema as generated by Hibernate before migrations were introduced. Existing databases are baselined at this
+-- version (quarkus.flyway.baseline-on-migrate) and skip it.
+
+create sequence hibernate_sequence start 1 increment 1;
+
+create table auth_user (
+    id int8 not null,
+    password varchar(255),
+    role varchar(255),
+    username varchar(255),
+    primary key (id)
+);
+
+create table match (
+    id int8 not null,
+    date timestamp,
+    stage varchar(255),
+    type varchar(255),
+    tournamentId int8,
+    primary key (id)
+);
+
+create table match_result (
+    matchid int8 not null,
+    playerid int8 not null,
+    extraRound BOOLEAN DEFAULT FALSE not null,
+    missed int4 not null,
+    scored int4 not null,
+    winner BOOLEAN DEFAULT FALSE not null,
+    opponentid int8 not null,
+    primary key (matchid, playerid)
+);
+
+create table player (
+    id int8 not null,
+    age int4 not null,
+    firstName varchar(255),
+    lastName varchar(255),
+    name varchar(255),
+    registrationDate timestamp,
+    primary key (id)
+);
+
+create table tournament (
+    id int8 not null,
+    date timestamp,
+    description varchar(255),
+    fullName varchar(255),
+    name varchar(255),
+    type varchar(255),
+    primary key (id)
+);
+
+alter table if exists player
+    add constraint UK_2stnb33bvtgrhglixsaf658kw unique (name);
+
+alter table if exists tournament
+    add constraint UK_hswi99dqfqk68pblbp3xorngk unique (name);
+
+alter table if exists match
+    add constraint FKqtbnyu38pbhjixmigsplymc20
+    foreign key (tournamentId)
+    references tournament;
+
+alter table if exists match_result
+    add constraint FKd7a3qbdioln45p1ppxbc9uwlo
+    foreign key (matchid)
+    references match;
+
+alter table if exists match_result
+    add constraint FK80x3xy1d88irobu1i9uke4p75
+    foreign key (playerid)
+    references player;
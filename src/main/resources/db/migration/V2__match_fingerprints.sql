@@ -0,0 +1,7 @@
+-- Content fingerprint of imported matches, unique so an import can be repeated. Databases that ran the
+-- application with generation: update already have the column and its constraint.
+
+alter table match
+    add column if not exists fingerprint varchar(255);
+
+create unique index if not exists UK_b699xlqcky7paiiknji0ln75v on match (fingerprint);
@@ -0,0 +1,16 @@
+-- Firestore documents waiting to be published by the outbox relay. Databases that ran the application with
+-- generation: update may already have the table, without retryAt.
+
+create table if not exists outbox_event (
+    id int8 not null,
+    attempts INTEGER DEFAULT 0 not null,
+    collection varchar(255),
+    createdAt timestamp,
+    documentId varchar(255),
+    lastError varchar(1000),
+    payload text not null,
+    primary key (id)
+);
+
+alter table outbox_event
+    add column if not exists retryAt timestamp;
@@ -0,0 +1,68 @@
+-- Each match row holds both players and both scores; match_result becomes a view with one row per player.
+
+alter table match
+    add column playerId int8,
+    add column opponentId int8,
+    add column playerScored int4,
+    add column opponentScored int4;
+
+update match m
+set playerId       = mr.playerid,
+    opponentId     = mr.opponentid,
+    playerScored   = mr.scored,
+    opponentScored = mr.missed
+from match_result mr
+where mr.matchid = m.id
+  and mr.playerid < mr.opponentid;
+
+-- Matches that lost one of their result rows keep the remaining one
+update match m
+set playerId       = mr.playerid,
+    opponentId     = mr.opponentid,
+    playerScored   = mr.scored,
+    opponentScored = mr.missed
+from match_result mr
+where mr.matchid = m.id
+  and m.playerId is null;
+
+-- Matches without any result were never visible
+delete from match where playerId is null;
+
+-- Legacy matches of a player against themselves cannot be repaired, the opponent is unknown: they are deleted
+-- with their results, otherwise CK_match_players below aborts the migration
+delete from match_result
+where matchid in (select id from match where playerId = opponentId);
+delete from match where playerId = opponentId;
+
+alter table match
+    alter column playerId set not null,
+    alter column opponentId set not null,
+    alter column playerScored set not null,
+    alter column opponentScored set not null,
+    add constraint FK_match_player foreign key (playerId) references player,
+    add constraint FK_match_opponent foreign key (opponentId) references player,
+    add constraint CK_match_players check (playerId <> opponentId);
+
+create index IDX_match_player on match (playerId);
+create index IDX_match_opponent on match (opponentId);
+
+drop table match_result;
+
+create view match_result as
+select m.id                                         as matchid,
+       m.playerId                                   as playerid,
+       m.opponentId                                 as opponentid,
+       m.playerScored                               as scored,
+       m.opponentScored                             as missed,
+       m.playerScored > m.opponentScored            as winner,
+       abs(m.playerScored - m.opponentScored) = 1   as extraRound
+from match m
+union all
+select m.id,
+       m.opponentId,
+       m.playerId,
+       m.opponentScored,
+       m.playerScored,
+       m.opponentScored > m.playerScored,
+       abs(m.playerScored - m.opponentScored) = 1
+from match m;
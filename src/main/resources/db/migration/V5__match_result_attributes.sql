@@ -0,0 +1,40 @@
+-- Match attributes used by filters become columns of match_result, read from the same match row, and the
+-- per-player indexes cover them.
+
+drop view match_result;
+
+create view match_result as
+select m.id                                         as matchid,
+       m.playerId                                   as playerid,
+       m.opponentId                                 as opponentid,
+       m.playerScored                               as scored,
+       m.opponentScored                             as missed,
+       m.playerScored > m.opponentScored            as winner,
+       abs(m.playerScored - m.opponentScored) = 1   as extraRound,
+       m.type,
+       m.stage,
+       m.tournamentId,
+       m.date
+from match m
+union all
+select m.id,
+       m.opponentId,
+       m.playerId,
+       m.opponentScored,
+       m.playerScored,
+       m.opponentScored > m.playerScored,
+       abs(m.playerScored - m.opponentScored) = 1,
+       m.type,
+       m.stage,
+       m.tournamentId,
+       m.date
+from match m;
+
+drop index IDX_match_player;
+drop index IDX_match_opponent;
+
+create index IDX_match_player_type_date on match (playerId, type, date)
+    include (opponentId, playerScored, opponentScored, stage, tournamentId);
+create index IDX_match_opponent_type_date on match (opponentId, type, date)
+    include (playerId, playerScored, opponentScored, stage, tournamentId);
+create index IDX_match_tournament_stage on match (tournamentId, stage);
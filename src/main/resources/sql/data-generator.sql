@@ -5,7 +5,6 @@ $$
 DECLARE
     randomScored int    := 0;
     missed       int    := 0;
-    matchId      bigint := 0;
     playerId     bigint;
     opponentId   bigint;
     points       int    := 11;
@@ -20,9 +19,6 @@ BEGIN
 
     FOR i IN 1..count
         LOOP
-            INSERT INTO match(id, type, tournamentid, stage, date)
-            VALUES ((SELECT nextval('hibernate_sequence')), matchType, null, 'FRIENDLY', now());
-
             SELECT floor(random() * (2 - 0 + 1) + 0) INTO randomScored;
 
             IF randomScored = 2 THEN
@@ -33,13 +29,9 @@ BEGIN
                 SELECT floor(random() * (points) + 0) INTO randomScored;
             END IF;
 
-            SELECT MAX(id) FROM match INTO matchId;
-
-            INSERT INTO match_result(matchid, playerid, missed, scored, extraround, winner, opponentid)
-            VALUES (matchId, playerId, missed, randomScored, false, randomScored > missed, opponentId);
-
-            INSERT INTO match_result(matchid, playerid, missed, scored, extraround, winner, opponentid)
-            VALUES (matchId, opponentId, randomScored, missed, false, missed > randomScored, playerId);
+            INSERT INTO match(id, type, tournamentid, stage, date, playerid, opponentid, playerscored, opponentscored)
+            VALUES ((SELECT nextval('hibernate_sequence')), matchType, null, 'FRIENDLY', now(),
+                    playerId, opponentId, randomScored, missed);
         END LOOP;
 END ;
 $$;
\ No newline at end of file
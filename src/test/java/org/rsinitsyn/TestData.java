@@ -0,0 +1,98 @@
+package org.rsinitsyn;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import org.rsinitsyn.domain.Match;
+import org.rsinitsyn.domain.MatchType;
+import org.rsinitsyn.domain.OutboxEvent;
+import org.rsinitsyn.domain.Player;
+import org.rsinitsyn.domain.TournamentStage;
+import org.rsinitsyn.dto.request.CreateMatchDto;
+import org.rsinitsyn.dto.request.CreatePlayerDto;
+import org.rsinitsyn.service.TennisService;
+
+/**
+ * Fixtures of the {@code @QuarkusTest}s, which run against the {@code tennis-db-test} database of the {@code test}
+ * profile, never the dev one: {@link #clear()} empties it.
+ */
+@ApplicationScoped
+public class TestData {
+
+    @Inject
+    EntityManager entityManager;
+    @Inject
+    TennisService tennisService;
+
+    /**
+     * Deletes instead of truncating: {@code TRUNCATE} locks the tables exclusively one by one and can deadlock
+     * with the live feed, which may still be reading for a subscriber of the previous test.
+     */
+    @Transactional
+    public void clear() {
+        Stream.of("match", "outbox_event", "tournament", "player")
+                .forEach(table -> entityManager.createNativeQuery("delete from " + table).executeUpdate());
+    }
+
+    @Transactional
+    public void players(String... names) {
+        Arrays.stream(names).forEach(name -> tennisService.savePlayer(new CreatePlayerDto(name, name, name, 20)));
+    }
+
+    @Transactional
+    public Match match(String player, int scored, int missed, String opponent, Instant date) {
+        return match(player, scored, missed, opponent, date, null);
+    }
+
+    @Transactional
+    public Match match(String player, int scored, int missed, String opponent, Instant date, String tournament) {
+        return tennisService.saveMatch(new CreateMatchDto(MatchType.SHORT,
+                new CreateMatchDto.PlayerResultDto(player, scored),
+                new CreateMatchDto.PlayerResultDto(opponent, missed),
+                tournament == null ? null : new CreateMatchDto.TournamentInfo(tournament, Optional.of(TournamentStage.GROUP)),
+                date));
+    }
+
+    /**
+     * Persists the match without the service, as another writer would: no {@code MatchSavedEvent} is fired.
+     */
+    @Transactional
+    public Match rawMatch(String player, int scored, int missed, String opponent, Instant date) {
+        var match = new Match();
+        match.player = Player.findByName(player);
+        match.opponent = Player.findByName(opponent);
+        match.playerScored = scored;
+        match.opponentScored = missed;
+        match.stage = TournamentStage.FRIENDLY;
+        match.date = date;
+        match.persist();
+        return match;
+    }
+
+    @Transactional
+    public void execute(String sql) {
+        entityManager.createNativeQuery(sql).executeUpdate();
+    }
+
+    @Transactional
+    public List<OutboxEvent> outbox() {
+        return OutboxEvent.list("order by id");
+    }
+
+    @Transactional
+    public long countMatches() {
+        return Match.count();
+    }
+
+    @Transactional
+    public List<Instant> matchDates() {
+        return entityManager.createQuery("select m.date from Match m order by m.date", Instant.class)
+                .getResultList();
+    }
+}
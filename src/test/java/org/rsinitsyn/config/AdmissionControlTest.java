@@ -0,0 +1,81 @@
+package org.rsinitsyn.config;
+
+import io.quarkus.test.junit.QuarkusTest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.rsinitsyn.exception.ServiceOverloadedException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The {@code import} class of {@code application.yml}: one call at a time, two queued for up to a second.
+ */
+@QuarkusTest
+class AdmissionControlTest {
+
+    @Inject
+    Endpoint endpoint;
+
+    @Test
+    void queuesUpToMaxQueueAndRejectsTheRest() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            List<Future<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                int call = i;
+                calls.add(executor.submit(() -> endpoint.call(call, release)));
+                Thread.sleep(100);
+            }
+
+            var rejected = assertThrows(ServiceOverloadedException.class, () -> endpoint.call(3, release));
+            assertEquals(30, rejected.getRetryAfterSeconds());
+
+            release.countDown();
+            for (int i = 0; i < calls.size(); i++) {
+                assertEquals(i, calls.get(i).get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsAfterMaxWait() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            Future<Integer> running = executor.submit(() -> endpoint.call(0, release));
+            Thread.sleep(100);
+
+            long start = System.nanoTime();
+            assertThrows(ServiceOverloadedException.class, () -> endpoint.call(1, release));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 900);
+
+            release.countDown();
+            assertEquals(0, running.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @ApplicationScoped
+    @AdmissionControl("import")
+    static class Endpoint {
+
+        int call(int call, CountDownLatch release) throws InterruptedException {
+            release.await(5, TimeUnit.SECONDS);
+            return call;
+        }
+    }
+}
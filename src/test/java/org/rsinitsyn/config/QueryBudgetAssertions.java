@@ -0,0 +1,71 @@
+package org.rsinitsyn.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks requests against the {@link QueryBudget} of their resource method, from the
+ * {@code tennis.query.statements} summary that {@link QueryStatisticsFilter} records per operation.
+ */
+@ApplicationScoped
+public class QueryBudgetAssertions {
+
+    @Inject
+    MeterRegistry registry;
+
+    /**
+     * Runs the request, which must call {@code resource.method} once, and fails when it prepared more statements
+     * than the budget of the method.
+     *
+     * @return statements prepared by the request
+     */
+    public int assertWithinBudget(Class<?> resource, String method, Runnable request) {
+        QueryBudget budget = getBudget(resource, method);
+        String operation = resource.getSimpleName() + "." + method;
+        long calls = calls(operation);
+        double statements = statements(operation);
+
+        request.run();
+
+        assertEquals(calls + 1, calls(operation), operation + " was not called once");
+        int prepared = (int) (statements(operation) - statements);
+        assertTrue(prepared <= budget.statements(), String.format("%s prepared %d statements, its budget is %d",
+                operation, prepared, budget.statements()));
+        return prepared;
+    }
+
+    private QueryBudget getBudget(Class<?> resource, String method) {
+        Method resourceMethod = Arrays.stream(resource.getMethods())
+                .filter(m -> m.getName().equals(method))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No method " + method + " in " + resource.getName()));
+        QueryBudget budget = resourceMethod.getAnnotation(QueryBudget.class);
+        if (budget == null) {
+            budget = resource.getAnnotation(QueryBudget.class);
+        }
+        assertNotNull(budget, resource.getSimpleName() + "." + method + " has no query budget");
+        return budget;
+    }
+
+    private long calls(String operation) {
+        DistributionSummary summary = summary(operation);
+        return summary == null ? 0 : summary.count();
+    }
+
+    private double statements(String operation) {
+        DistributionSummary summary = summary(operation);
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    private DistributionSummary summary(String operation) {
+        return registry.find("tennis.query.statements").tag("operation", operation).summary();
+    }
+}
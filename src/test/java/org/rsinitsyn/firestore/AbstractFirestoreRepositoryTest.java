@@ -0,0 +1,143 @@
+package org.rsinitsyn.firestore;
+
+import com.google.cloud.firestore.Firestore;
+import io.quarkus.test.junit.QuarkusTest;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import javax.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.rsinitsyn.domain.Player;
+import org.rsinitsyn.exception.TennisApiException;
+import org.rsinitsyn.repo.PlayerCodec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against the Firestore emulator the {@code test} profile points the client to
+ * ({@code gcloud emulators firestore start --host-port=localhost:8081}, with
+ * {@code FIRESTORE_EMULATOR_HOST=localhost:8081} exported), and is skipped without it. Every test writes to a
+ * collection of its own.
+ */
+@QuarkusTest
+@EnabledIfEnvironmentVariable(named = "FIRESTORE_EMULATOR_HOST", matches = ".+")
+class AbstractFirestoreRepositoryTest {
+
+    private static final int BATCH_SIZE = 10;
+    private static final int MAX_IN_FLIGHT = 3;
+
+    @Inject
+    Firestore firestore;
+    @Inject
+    FirestoreRepositoryConfig config;
+
+    private final AtomicInteger batches = new AtomicInteger();
+    private final AtomicInteger batchesOnCaller = new AtomicInteger();
+    private Thread caller;
+    private AbstractFirestoreRepository<Player> players;
+
+    @BeforeEach
+    void setUp() {
+        caller = Thread.currentThread();
+        players = new AbstractFirestoreRepository<>(countingBatches(firestore), "players-" + System.nanoTime(),
+                config(BATCH_SIZE, MAX_IN_FLIGHT), new PlayerCodec()) {
+        };
+    }
+
+    @Test
+    void saveAllWritesEveryDocumentInBatches() {
+        List<Player> models = players(95);
+
+        assertEquals(95, players.saveAll(models));
+
+        assertEquals(10, batches.get());
+        assertEquals(95, players.findAll().size());
+        assertEquals("player42", players.get("42").map(player -> player.name).orElseThrow());
+    }
+
+    @Test
+    void saveAllStartsAtMostMaxInFlightBatchesAtOnce() {
+        // later batches are chained after earlier ones, so they start on the client's threads
+        int saved = players.saveAll(players(BATCH_SIZE * MAX_IN_FLIGHT * 4));
+
+        assertEquals(BATCH_SIZE * MAX_IN_FLIGHT * 4, saved);
+        assertEquals(MAX_IN_FLIGHT * 4, batches.get());
+        assertEquals(MAX_IN_FLIGHT, batchesOnCaller.get());
+    }
+
+    @Test
+    void failedWritesThrow() {
+        Player tooLarge = players(1).get(0);
+        tooLarge.name = "x".repeat(1_100_000);
+
+        assertThrows(TennisApiException.class, () -> players.save(tooLarge));
+        assertThrows(TennisApiException.class, () -> players.saveAll(List.of(players(1).get(0), tooLarge)));
+    }
+
+    @Test
+    void getOfMissingDocumentIsEmpty() {
+        assertEquals(Optional.empty(), players.get("404"));
+        Player player = players(1).get(0);
+        assertTrue(players.save(player));
+        assertTrue(players.get("0").isPresent());
+        assertTrue(players.delete(player));
+        assertEquals(Optional.empty(), players.get("0"));
+    }
+
+    private static List<Player> players(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            var player = new Player();
+            player.id = (long) i;
+            player.name = "player" + i;
+            return player;
+        }).toList();
+    }
+
+    private Firestore countingBatches(Firestore delegate) {
+        return (Firestore) Proxy.newProxyInstance(Firestore.class.getClassLoader(), new Class<?>[]{Firestore.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("batch")) {
+                        batches.incrementAndGet();
+                        if (Thread.currentThread() == caller) {
+                            batchesOnCaller.incrementAndGet();
+                        }
+                    }
+                    try {
+                        return method.invoke(delegate, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private FirestoreRepositoryConfig config(int batchSize, int maxInFlight) {
+        return new FirestoreRepositoryConfig() {
+            @Override
+            public Write write() {
+                return new Write() {
+                    @Override
+                    public int batchSize() {
+                        return batchSize;
+                    }
+
+                    @Override
+                    public int maxInFlight() {
+                        return maxInFlight;
+                    }
+                };
+            }
+
+            @Override
+            public Read read() {
+                return config.read();
+            }
+        };
+    }
+}
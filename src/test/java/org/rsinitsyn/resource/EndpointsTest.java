@@ -0,0 +1,182 @@
+package org.rsinitsyn.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rsinitsyn.config.BinaryJacksonProvider;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Calls every endpoint over HTTP only, so the same checks run against the native executable in
+ * {@link NativeEndpointsIT}. Players and the tournament get names unique to the run, since the database is not
+ * cleared between runs.
+ */
+@QuarkusTest
+class EndpointsTest {
+
+    private static final String RUN = Long.toString(System.nanoTime() % 1_000_000, 36);
+    private static final String ALICE = "al" + RUN;
+    private static final String BOB = "bo" + RUN;
+    private static final String CAROL = "ca" + RUN;
+    private static final String LEAGUE = "lg" + RUN;
+    private static final byte[] ZIP_MAGIC = {'P', 'K'};
+
+    private static boolean created;
+
+    @BeforeEach
+    void setUp() {
+        if (created) {
+            return;
+        }
+        Stream.of(ALICE, BOB, CAROL).forEach(name -> given().contentType(ContentType.JSON)
+                .body(String.format("{\"name\": \"%s\", \"firstName\": \"%1$s\", \"lastName\": \"%1$s\", \"age\": 20}",
+                        name))
+                .post("/api/player")
+                .then().statusCode(200));
+        given().contentType(ContentType.JSON)
+                .queryParam("name", LEAGUE).queryParam("type", "LEAGUE").queryParam("fullname", "League")
+                .post("/api/tournament")
+                .then().statusCode(200);
+        Instant date = Instant.now().minus(2, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+        saveMatch(ALICE, 11, 5, BOB, date, true);
+        saveMatch(BOB, 11, 9, CAROL, date.plusSeconds(1), true);
+        // a day later, progress needs two days of matches
+        saveMatch(CAROL, 11, 7, ALICE, date.plus(1, ChronoUnit.DAYS), false);
+        created = true;
+    }
+
+    @Test
+    void players() {
+        given().get("/api/player/all").then().statusCode(200)
+                .body("name", hasItems(ALICE, BOB, CAROL));
+        given().get("/api/player/stats/" + ALICE).then().statusCode(200)
+                .body("overallStats.matches", equalTo(2));
+        given().queryParam("name", ALICE).queryParam("name", BOB).get("/api/player/stats").then().statusCode(200)
+                .body(ALICE + ".overallStats.wins", equalTo(1));
+        given().get("/api/player/history/" + ALICE).then().statusCode(200);
+        given().get("/api/player/matches/" + ALICE).then().statusCode(200);
+        given().get("/api/player/matches-formatted/" + ALICE).then().statusCode(200);
+        given().queryParam("type", "SHORT").get("/api/player/progress/day/" + ALICE).then().statusCode(200);
+        given().get("/api/player/stats/" + ALICE + "/csv").then().statusCode(200)
+                .body(containsString(BOB));
+    }
+
+    @Test
+    void excelExports() {
+        assertXlsx(given().get("/api/player/stats/" + ALICE + "/xlsx").then().statusCode(200)
+                .extract().asByteArray());
+        assertXlsx(given().get("/api/player/history/" + ALICE + "/xlsx").then().statusCode(200)
+                .extract().asByteArray());
+    }
+
+    @Test
+    void analytics() {
+        given().get("/api/match/all").then().statusCode(200);
+        given().get("/api/match/records").then().statusCode(200)
+                .body("records.ALL.matches.highest", notNullValue());
+        given().get("/api/match/ratings").then().statusCode(200)
+                .body("types.ALL.matches.name", hasItem(ALICE));
+        given().get("/api/match/ratings/progress").then().statusCode(200);
+        given().accept(BinaryJacksonProvider.APPLICATION_CBOR).get("/api/match/records").then().statusCode(200)
+                .contentType(BinaryJacksonProvider.APPLICATION_CBOR);
+        given().accept(BinaryJacksonProvider.APPLICATION_SMILE).get("/api/match/ratings").then().statusCode(200)
+                .contentType(BinaryJacksonProvider.APPLICATION_SMILE);
+    }
+
+    @Test
+    void predictions() {
+        given().queryParam("name", ALICE).queryParam("opponent", BOB)
+                .post("/api/match/predict").then().statusCode(200)
+                .body("leftPlayer", equalTo(ALICE));
+        given().queryParam("name", ALICE).queryParam("opponent", BOB).queryParam("simulations", 100)
+                .queryParam("seed", 1)
+                .post("/api/match/predict/simulate").then().statusCode(200);
+        given().queryParam("name", ALICE).queryParam("name", BOB).queryParam("name", CAROL)
+                .queryParam("simulations", 100).queryParam("seed", 1)
+                .post("/api/match/predict/matrix").then().statusCode(200);
+    }
+
+    @Test
+    void tournaments() {
+        given().get("/api/tournament/all").then().statusCode(200)
+                .body("name", hasItem(LEAGUE));
+        given().get("/api/tournament/history/" + LEAGUE).then().statusCode(200)
+                .body("table.size()", equalTo(5));
+    }
+
+    @Test
+    void imports() {
+        given().contentType(ContentType.JSON)
+                .body(String.format("{\"content\": \"%s 11 3 %s\", \"matchType\": \"SHORT\"}", ALICE, CAROL))
+                .post("/api/match/import/single").then().statusCode(201);
+        given().contentType(ContentType.TEXT)
+                .body(String.format("%s 11 4 %s%n%s 11 x %s%n", BOB, ALICE, BOB, ALICE))
+                .post("/api/match/import/stream").then().statusCode(200)
+                .body("accepted", equalTo(1))
+                .body("rejected", equalTo(1));
+        given().contentType("text/csv")
+                .body(String.format("player,scored,missed,opponent%n%s,11,6,%s%n", CAROL, BOB))
+                .post("/api/match/import/stream").then().statusCode(200)
+                .body("accepted", equalTo(1));
+    }
+
+    @Test
+    void errors() {
+        given().get("/api/tournament/history/ghost" + RUN).then().statusCode(404);
+        given().queryParam("fields", "bogus").get("/api/player/stats/" + ALICE).then().statusCode(400)
+                .body("message", containsString("bogus"));
+    }
+
+    @Test
+    void liveFeed() throws Exception {
+        var live = URI.create(RestAssured.baseURI + ":" + RestAssured.port + "/api/match/live");
+        var response = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build().sendAsync(
+                HttpRequest.newBuilder(live).timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.ofLines());
+        // the response only completes with the first event, give the subscription time to be registered
+        Thread.sleep(1000);
+
+        saveMatch(BOB, 11, 2, ALICE, Instant.now(), false);
+        try (Stream<String> lines = response.get(10, TimeUnit.SECONDS).body()) {
+            assertTrue(lines.anyMatch(line -> line.replace(" ", "").equals("event:match")));
+        }
+    }
+
+    private static void saveMatch(String player, int scored, int missed, String opponent, Instant date,
+                                  boolean league) {
+        String tournament = league
+                ? String.format(", \"tournamentInfo\": {\"name\": \"%s\", \"stage\": \"GROUP\"}", LEAGUE)
+                : "";
+        given().contentType(ContentType.JSON)
+                .body(String.format("""
+                                {"type": "SHORT", "player": {"name": "%s", "score": %d},
+                                 "opponentPlayer": {"name": "%s", "score": %d}, "date": "%s"%s}""",
+                        player, scored, opponent, missed, date, tournament))
+                .post("/api/match")
+                .then().statusCode(200);
+    }
+
+    private static void assertXlsx(byte[] body) {
+        assertArrayEquals(ZIP_MAGIC, Arrays.copyOf(body, ZIP_MAGIC.length));
+    }
+}
@@ -0,0 +1,32 @@
+package org.rsinitsyn.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import javax.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rsinitsyn.TestData;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+@QuarkusTest
+class MatchResourceTest {
+
+    @Inject
+    TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        testData.clear();
+        testData.players("alice", "bob");
+    }
+
+    @Test
+    void predictionMatrixOfMissingPlayersNamesOnlyThem() {
+        given().queryParam("name", "alice", "ghost", "bob")
+                .post("/api/match/predict/matrix")
+                .then()
+                .statusCode(404)
+                .body("message", equalTo("Some of players not found: [ghost]"));
+    }
+}
@@ -0,0 +1,11 @@
+package org.rsinitsyn.resource;
+
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+
+/**
+ * {@link EndpointsTest} against the packaged application, the native executable when built with
+ * {@code -Dnative}.
+ */
+@QuarkusIntegrationTest
+class NativeEndpointsIT extends EndpointsTest {
+}
@@ -0,0 +1,56 @@
+package org.rsinitsyn.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import java.time.Instant;
+import javax.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rsinitsyn.TestData;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+@QuarkusTest
+class PlayerResourceTest {
+
+    @Inject
+    TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        testData.clear();
+        testData.players("alice", "bob");
+    }
+
+    @Test
+    void statsOfMissingPlayersNameOnlyThem() {
+        given().queryParam("name", "alice", "ghost", "bob", "nobody")
+                .get("/api/player/stats")
+                .then()
+                .statusCode(404)
+                .body("message", equalTo("Some of players not found: [ghost, nobody]"));
+    }
+
+    @Test
+    void statsIncludeOnlyRequestedFields() {
+        testData.match("alice", 11, 6, "bob", Instant.now());
+
+        given().queryParam("fields", "wins,winRate")
+                .get("/api/player/stats/alice")
+                .then()
+                .statusCode(200)
+                .body("overallStats.wins", equalTo(1))
+                .body("overallStats.matches", nullValue());
+    }
+
+    @Test
+    void statsRejectUnknownFields() {
+        given().queryParam("fields", "wins,winrate", "goals")
+                .get("/api/player/stats/alice")
+                .then()
+                .statusCode(400)
+                .body("message", startsWith("Unknown fields [winrate, goals], valid fields are [matches, wins,"));
+    }
+}
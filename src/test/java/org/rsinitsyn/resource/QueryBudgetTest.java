@@ -0,0 +1,72 @@
+package org.rsinitsyn.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import javax.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rsinitsyn.TestData;
+import org.rsinitsyn.config.QueryBudgetAssertions;
+
+import static io.restassured.RestAssured.given;
+
+@QuarkusTest
+class QueryBudgetTest {
+
+    @Inject
+    TestData testData;
+    @Inject
+    QueryBudgetAssertions queryBudget;
+
+    @BeforeEach
+    void setUp() {
+        testData.clear();
+        testData.players("alice", "bob", "carol");
+        Instant date = Instant.now().minus(30, ChronoUnit.DAYS);
+        for (int i = 0; i < 30; i++) {
+            testData.match(i % 2 == 0 ? "alice" : "bob", 11, i % 10, i % 3 == 0 ? "carol" : i % 2 == 0 ? "bob" : "alice",
+                    date.plus(i, ChronoUnit.HOURS));
+        }
+    }
+
+    @Test
+    void playerStats() {
+        queryBudget.assertWithinBudget(PlayerResource.class, "getStatsByPlayerName", () ->
+                given().get("/api/player/stats/alice").then().statusCode(200));
+        queryBudget.assertWithinBudget(PlayerResource.class, "getStatsByPlayerName", () ->
+                given().queryParam("opponent", "bob").get("/api/player/stats/alice").then().statusCode(200));
+    }
+
+    @Test
+    void playerHistory() {
+        queryBudget.assertWithinBudget(PlayerResource.class, "getHistoryByPlayerName", () ->
+                given().get("/api/player/history/alice").then().statusCode(200));
+    }
+
+    @Test
+    void playerMatches() {
+        queryBudget.assertWithinBudget(PlayerResource.class, "getMatchesHistoryByPlayerName", () ->
+                given().get("/api/player/matches/alice").then().statusCode(200));
+    }
+
+    @Test
+    void saveMatch() {
+        queryBudget.assertWithinBudget(MatchResource.class, "save", () ->
+                given().contentType(ContentType.JSON)
+                        .body("""
+                                {"type": "SHORT", "player": {"name": "alice", "score": 11},
+                                 "opponentPlayer": {"name": "carol", "score": 4}}""")
+                        .post("/api/match")
+                        .then().statusCode(200));
+    }
+
+    @Test
+    void predict() {
+        queryBudget.assertWithinBudget(MatchResource.class, "predict", () ->
+                given().queryParam("name", "alice").queryParam("opponent", "bob")
+                        .post("/api/match/predict")
+                        .then().statusCode(200));
+    }
+}
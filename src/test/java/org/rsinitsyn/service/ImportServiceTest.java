@@ -0,0 +1,154 @@
+package org.rsinitsyn.service;
+
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import javax.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rsinitsyn.TestData;
+import org.rsinitsyn.domain.Match;
+import org.rsinitsyn.domain.MatchType;
+import org.rsinitsyn.dto.request.ImportSingleMatchesDto;
+import org.rsinitsyn.dto.response.ImportReportResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class ImportServiceTest {
+
+    @Inject
+    ImportService importService;
+    @Inject
+    TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        testData.clear();
+        testData.players("alice", "bob");
+    }
+
+    @Test
+    void equalDatedLinesOfOneImportAreAllSaved() {
+        String content = """
+                alice 11 5 bob 2024-03-01
+                alice 11 5 bob 2024-03-01
+                bob 11 9 alice 2024-03-01
+                """;
+
+        ImportReportResponse report = importLines(content, null);
+
+        assertEquals(3, report.getAccepted());
+        assertEquals(0, report.getDuplicates());
+        assertEquals(3, testData.countMatches());
+    }
+
+    @Test
+    void repeatedImportSkipsSavedLines() {
+        String content = """
+                alice 11 5 bob 2024-03-01
+                alice 11 5 bob 2024-03-01
+                """;
+        importLines(content, null);
+
+        ImportReportResponse report = importLines(content + "bob 11 3 alice 2024-03-02\n", null);
+
+        assertEquals(1, report.getAccepted());
+        assertEquals(2, report.getDuplicates());
+        assertEquals(3, testData.countMatches());
+    }
+
+    @Test
+    void reorderedImportSkipsSavedLines() {
+        importLines("""
+                alice 11 5 bob 2024-03-01
+                alice 11 5 bob 2024-03-01
+                bob 11 3 alice 2024-03-02
+                """, null);
+
+        ImportReportResponse report = importLines("""
+
+                bob 11 3 alice 2024-03-02
+                alice 11 5 bob 2024-03-01
+                alice 11 5 bob 2024-03-01
+                alice 11 5 bob 2024-03-01
+                """, null);
+
+        assertEquals(1, report.getAccepted());
+        assertEquals(3, report.getDuplicates());
+        assertEquals(4, testData.countMatches());
+    }
+
+    @Test
+    void undatedLinesAreDedupedOnlyUnderIdempotencyKey() {
+        String content = "alice 11 5 bob\n";
+        importLines(content, null);
+        importLines(content, null);
+        assertEquals(2, testData.countMatches());
+
+        importLines(content, "upload-1");
+        ImportReportResponse report = importLines(content, "upload-1");
+        assertEquals(1, report.getDuplicates());
+        assertEquals(3, testData.countMatches());
+    }
+
+    @Test
+    void invalidLineIsRejectedAlone() {
+        String content = """
+                alice 11 5 bob
+                alice 11 x bob
+                alice 11 5 carol
+                bob 11 2 alice
+                """;
+
+        ImportReportResponse report = importLines(content, null);
+
+        assertEquals(2, report.getAccepted());
+        assertEquals(2, report.getRejected());
+        assertEquals(2, testData.countMatches());
+    }
+
+    @Test
+    void readFailureKeepsLinesReadBefore() {
+        byte[] content = "alice 11 5 bob\nbob 11 7 alice\n".getBytes(StandardCharsets.UTF_8);
+        InputStream failing = new SequenceInputStream(new ByteArrayInputStream(content), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+
+        ImportReportResponse report = importService.importMatches(failing, ImportService.Format.LINES,
+                MatchType.SHORT, null, null);
+
+        assertTrue(report.isTruncated());
+        assertEquals(2, report.getAccepted());
+        assertEquals(2, testData.countMatches());
+    }
+
+    @Test
+    void singleImportKeepsLineOrderUnderPayloadDate() {
+        Instant date = Instant.parse("2024-03-01T18:00:00Z");
+        var dto = new ImportSingleMatchesDto();
+        dto.setContent("alice 11 5 bob\nalice 11 5 bob\nbob 11 7 alice");
+        dto.setMatchType(MatchType.SHORT);
+        dto.setDate(date);
+
+        assertEquals(3, importService.importSingleMatches(dto));
+        assertEquals(0, importService.importSingleMatches(dto));
+
+        List<Instant> dates = testData.matchDates();
+        assertEquals(List.of(date, date.plusMillis(1), date.plusMillis(2)), dates);
+    }
+
+    private ImportReportResponse importLines(String content, String idempotencyKey) {
+        return importService.importMatches(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                ImportService.Format.LINES, MatchType.SHORT, null, idempotencyKey);
+    }
+}
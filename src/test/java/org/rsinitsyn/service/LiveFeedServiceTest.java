@@ -0,0 +1,98 @@
+package org.rsinitsyn.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rsinitsyn.TestData;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class LiveFeedServiceTest {
+
+    @TestHTTPResource("/api/match/live")
+    URI live;
+    @Inject
+    TestData testData;
+    @Inject
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        testData.clear();
+        testData.players("alice", "bob", "carol");
+    }
+
+    @Test
+    void foldsSavedMatchesIntoRatingsAndRecords() throws Exception {
+        Instant now = Instant.now();
+        testData.match("alice", 11, 4, "bob", now.minus(2, ChronoUnit.DAYS));
+        var response = subscribe();
+
+        testData.match("bob", 11, 9, "alice", now.minus(1, ChronoUnit.DAYS));
+        Iterator<String> events = response.get(10, TimeUnit.SECONDS).body().iterator();
+        assertEquals("bob", next(events, "match").get("name").asText());
+        JsonNode ratings = next(events, "ratings").get("types").get("ALL");
+        assertEquals("2", value(ratings.get("matches"), "alice"));
+        assertEquals("2", value(ratings.get("matches"), "bob"));
+        JsonNode records = next(events, "records").get("ALL");
+        assertEquals("alice", records.get("pointsScored").get("highest").get("name").asText());
+        assertEquals("20", records.get("pointsScored").get("highest").get("value").asText());
+
+        // dated before the last match: counted in date order, not appended to the streaks
+        testData.match("carol", 11, 2, "alice", now.minus(3, ChronoUnit.DAYS));
+        next(events, "match");
+        ratings = next(events, "ratings").get("types").get("ALL");
+        assertEquals("3", value(ratings.get("matches"), "alice"));
+        assertEquals("1", value(ratings.get("matches"), "carol"));
+        assertEquals("1", value(ratings.get("winStreak"), "alice"));
+    }
+
+    /**
+     * The response completes with the first event, the feed loads the records when the first subscriber registers.
+     */
+    private CompletableFuture<HttpResponse<Stream<String>>> subscribe() throws InterruptedException {
+        var response = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()
+                .sendAsync(HttpRequest.newBuilder(live).timeout(Duration.ofSeconds(30)).build(),
+                        HttpResponse.BodyHandlers.ofLines());
+        Thread.sleep(1000);
+        return response;
+    }
+
+    private JsonNode next(Iterator<String> lines, String event) throws Exception {
+        String name = null;
+        while (lines.hasNext()) {
+            String line = lines.next();
+            if (line.startsWith("event:")) {
+                name = line.substring("event:".length()).trim();
+            } else if (line.startsWith("data:") && event.equals(name)) {
+                return objectMapper.readTree(line.substring("data:".length()));
+            }
+        }
+        throw new AssertionError("No " + event + " event");
+    }
+
+    private static String value(JsonNode list, String name) {
+        for (JsonNode entry : list) {
+            if (entry.get("name").asText().equals(name)) {
+                return entry.get("value").asText();
+            }
+        }
+        throw new AssertionError(name + " not in " + list);
+    }
+}
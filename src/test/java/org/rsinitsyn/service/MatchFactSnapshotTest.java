@@ -0,0 +1,62 @@
+package org.rsinitsyn.service;
+
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Set;
+import javax.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rsinitsyn.TestData;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class MatchFactSnapshotTest {
+
+    @Inject
+    MatchFactSnapshot snapshot;
+    @Inject
+    TestData testData;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testData.clear();
+        testData.players("alice", "bob");
+        restart();
+    }
+
+    @Test
+    void restartReadsMatchesCommittedBehindItsBack() throws IOException {
+        Instant date = Instant.now().minus(1, ChronoUnit.DAYS);
+        long saved = testData.match("alice", 11, 4, "bob", date).id;
+        restart();
+
+        long behind = testData.rawMatch("bob", 11, 6, "alice", date.plusSeconds(1)).id;
+        long after = testData.match("alice", 11, 8, "bob", date.plusSeconds(2)).id;
+        assertFalse(matchIds().contains(behind));
+        restart();
+
+        assertEquals(Set.of(saved, behind, after), matchIds());
+        assertEquals(6, snapshot.view().size());
+        assertTrue(snapshot.isReady());
+    }
+
+    private void restart() throws IOException {
+        snapshot.onStop(null);
+        snapshot.onStart(null);
+    }
+
+    private Set<Long> matchIds() {
+        MatchFactSnapshot.View view = snapshot.view();
+        Set<Long> ids = new HashSet<>();
+        for (int row = 0; row < view.size(); row++) {
+            ids.add(view.matchId(row));
+        }
+        return ids;
+    }
+}
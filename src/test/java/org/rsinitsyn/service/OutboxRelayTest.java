@@ -0,0 +1,100 @@
+package org.rsinitsyn.service;
+
+import com.google.cloud.firestore.Firestore;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import javax.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.rsinitsyn.TestData;
+import org.rsinitsyn.domain.OutboxEvent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs passes by hand against the Firestore emulator of the {@code test} profile, see
+ * {@code AbstractFirestoreRepositoryTest}; the background relay only polls once an hour here.
+ */
+@QuarkusTest
+@TestProfile(OutboxRelayTest.ManualRelay.class)
+@EnabledIfEnvironmentVariable(named = "FIRESTORE_EMULATOR_HOST", matches = ".+")
+class OutboxRelayTest {
+
+    @Inject
+    OutboxRelay relay;
+    @Inject
+    Firestore firestore;
+    @Inject
+    TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        testData.clear();
+        testData.players("alice", "bob", "carol");
+        testData.match("alice", 11, 4, "bob", Instant.now());
+    }
+
+    @Test
+    void publishesSavedPlayersAndMatches() throws Exception {
+        List<OutboxEvent> outbox = testData.outbox();
+
+        assertEquals(new OutboxRelay.Pass(4, 4), relay.relay());
+
+        assertTrue(testData.outbox().isEmpty());
+        for (OutboxEvent event : outbox) {
+            assertTrue(firestore.collection(event.collection).document(event.documentId).get().get().exists());
+        }
+    }
+
+    @Test
+    void failingRowHoldsBackItsPlayersUntilParked() {
+        long alice = testData.outbox().get(0).id;
+        testData.execute("update outbox_event set documentId = 'not/valid' where id = " + alice);
+
+        // bob and carol are published, the match waits for alice's row
+        assertEquals(new OutboxRelay.Pass(4, 2), relay.relay());
+        Map<String, OutboxEvent> rows = rows();
+        assertEquals(1, rows.get("alice").attempts);
+        assertNotNull(rows.get("alice").retryAt);
+        assertEquals(0, rows.get("match").attempts);
+        assertEquals(rows.get("alice").retryAt, rows.get("match").retryAt);
+
+        // nothing is due until the retry
+        assertEquals(new OutboxRelay.Pass(0, 0), relay.relay());
+
+        testData.execute("update outbox_event set retryAt = null");
+        assertEquals(new OutboxRelay.Pass(2, 0), relay.relay());
+        testData.execute("update outbox_event set retryAt = null");
+        assertEquals(new OutboxRelay.Pass(2, 0), relay.relay());
+        assertEquals(3, rows().get("alice").attempts);
+        assertNull(rows().get("alice").retryAt);
+
+        // the parked row is no longer read and no longer holds the match back
+        assertEquals(new OutboxRelay.Pass(1, 1), relay.relay());
+        assertEquals(List.of(alice), testData.outbox().stream().map(event -> event.id).toList());
+        assertEquals(new OutboxRelay.Pass(0, 0), relay.relay());
+    }
+
+    private Map<String, OutboxEvent> rows() {
+        List<OutboxEvent> outbox = testData.outbox();
+        return outbox.size() == 2
+                ? Map.of("alice", outbox.get(0), "match", outbox.get(1))
+                : Map.of("alice", outbox.get(0));
+    }
+
+    public static class ManualRelay implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("outbox.poll-interval-millis", "3600000", "outbox.max-attempts", "3");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.rsinitsyn.service;
+
+import io.quarkus.test.junit.QuarkusTest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import javax.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.rsinitsyn.domain.TournamentStage;
+import org.rsinitsyn.dto.response.PredictionMatrixResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@QuarkusTest
+class PredictServiceTest {
+
+    @Inject
+    PredictService predictService;
+
+    @Test
+    void cupStagesReportTheLastRoundsOnly() {
+        List<String> players = IntStream.range(0, 8).mapToObj(i -> "p" + i).toList();
+
+        var cup = predictService.simulateCup(players, evenOdds(8), 100_000, 42);
+
+        for (PredictionMatrixResponse.CupPlayerDto player : cup.players().values()) {
+            assertEquals(100, player.rounds().get(0));
+            assertEquals(50, player.rounds().get(1), 1);
+            assertEquals(25, player.rounds().get(2), 1);
+            assertEquals(50, player.stages().get(TournamentStage.PLAY_OFF_UPPER_BRACKET), 1);
+            assertEquals(25, player.stages().get(TournamentStage.GRAND_FINAL), 1);
+            assertEquals(12.5, player.winProbability().value(), 1);
+        }
+    }
+
+    @Test
+    void cupOfTwoHasOnlyTheFinal() {
+        var cup = predictService.simulateCup(List.of("p0", "p1"), evenOdds(2), 1000, 42);
+
+        var stages = cup.players().get("p0").stages();
+        assertEquals(100, stages.get(TournamentStage.GRAND_FINAL));
+        assertFalse(stages.containsKey(TournamentStage.PLAY_OFF_UPPER_BRACKET));
+    }
+
+    private static double[][] evenOdds(int players) {
+        double[][] odds = new double[players][players];
+        for (double[] row : odds) {
+            Arrays.fill(row, 0.5);
+        }
+        return odds;
+    }
+}
@@ -0,0 +1,86 @@
+package org.rsinitsyn.service;
+
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.test.junit.QuarkusTest;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rsinitsyn.TestData;
+import org.rsinitsyn.domain.MatchType;
+import org.rsinitsyn.dto.response.MatchPredictionResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@QuarkusTest
+class PredictionCacheTest {
+
+    @Inject
+    PredictionCache predictionCache;
+    @Inject
+    TennisService tennisService;
+    @Inject
+    TestData testData;
+    @Inject
+    @CacheName("predictions-cache")
+    Cache cache;
+
+    private final AtomicInteger computed = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        testData.clear();
+        testData.players("alice", "bob", "carol", "dave");
+        cache.invalidateAll().await().indefinitely();
+        computed.set(0);
+    }
+
+    @Test
+    void reversedPairIsComputedInItsOwnOrientation() {
+        MatchPredictionResponse forward = predict("alice", "bob");
+        MatchPredictionResponse reversed = predict("bob", "alice");
+
+        assertEquals(2, computed.get());
+        assertEquals("alice", forward.getLeftPlayer());
+        assertEquals("bob", reversed.getLeftPlayer());
+        assertSame(forward, predict("alice", "bob"));
+        assertSame(reversed, predict("bob", "alice"));
+        assertEquals(2, computed.get());
+    }
+
+    @Test
+    void savedMatchInvalidatesPairsOfItsPlayers() {
+        predict("alice", "bob");
+        MatchPredictionResponse bobDave = predict("bob", "dave");
+
+        testData.match("alice", 11, 3, "carol", Instant.now());
+
+        assertSame(bobDave, predict("bob", "dave"));
+        assertEquals(2, computed.get());
+        predict("alice", "bob");
+        assertEquals(3, computed.get());
+    }
+
+    @Test
+    void reversedPredictionIsTheOneComputedAlone() {
+        testData.match("alice", 11, 3, "bob", Instant.now());
+        testData.match("bob", 11, 9, "alice", Instant.now());
+
+        tennisService.predictMatchWinner("alice", "bob", MatchType.SHORT);
+        MatchPredictionResponse afterForward = tennisService.predictMatchWinner("bob", "alice", MatchType.SHORT);
+        cache.invalidateAll().await().indefinitely();
+
+        assertEquals(tennisService.predictMatchWinner("bob", "alice", MatchType.SHORT), afterForward);
+    }
+
+    private MatchPredictionResponse predict(String player, String opponent) {
+        return predictionCache.get(player, opponent, MatchType.SHORT, () -> {
+            computed.incrementAndGet();
+            return new MatchPredictionResponse(1, player, opponent, List.of());
+        });
+    }
+}
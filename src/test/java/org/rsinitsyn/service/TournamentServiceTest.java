@@ -0,0 +1,63 @@
+package org.rsinitsyn.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import javax.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rsinitsyn.TestData;
+import org.rsinitsyn.domain.TournamentType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class TournamentServiceTest {
+
+    @Inject
+    TournamentService tournamentService;
+    @Inject
+    TestData testData;
+    @Inject
+    MeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        testData.clear();
+        testData.players("alice", "bob", "carol");
+        tournamentService.save("league", "League", "", TournamentType.LEAGUE);
+        Instant date = Instant.now().minus(1, ChronoUnit.DAYS);
+        testData.match("alice", 11, 5, "bob", date, "league");
+        testData.match("alice", 11, 7, "carol", date.plusSeconds(1), "league");
+        testData.match("carol", 11, 9, "bob", date.plusSeconds(2), "league");
+        testData.match("bob", 11, 0, "alice", date.plusSeconds(3));
+    }
+
+    @Test
+    void leagueTableCountsOnlyTournamentMatches() {
+        List<String> table = tournamentService.getTournamentHistory("league").getTable();
+
+        assertEquals(5, table.size());
+        assertTrue(table.get(2).matches("\\s*alice \\|\\s+22 \\|\\s+12 \\|.*\\|\\s+2 \\|\\s+0"), table.get(2));
+        assertTrue(table.get(4).matches("\\s*bob \\|.*\\|\\s+0 \\|\\s+2"), table.get(4));
+    }
+
+    @Test
+    void streamedLeagueRowsAreCounted() {
+        double scanned = scanned().totalAmount();
+        long reads = scanned().count();
+
+        tournamentService.getTournamentHistory("league");
+
+        assertEquals(reads + 2, scanned().count());
+        assertEquals(3 + 6, scanned().totalAmount() - scanned, 0);
+    }
+
+    private DistributionSummary scanned() {
+        return registry.summary("tennis.rows.scanned", "operation", "tournament-history");
+    }
+}